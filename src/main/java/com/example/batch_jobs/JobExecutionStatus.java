@@ -0,0 +1,89 @@
+package com.example.batch_jobs;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.PartitionStep;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Status of a job execution as exposed over REST. Job counts are summed over the steps, leaving out partition
+ * managers whose counts already aggregate their partitions. Durations of running executions are measured up to now.
+ */
+public record JobExecutionStatus(
+        Long id,
+        String job,
+        String status,
+        String exitCode,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Long durationMillis,
+        long readCount,
+        long writeCount,
+        long skipCount,
+        List<StepStatus> steps
+) {
+
+    public record StepStatus(
+            String name,
+            String status,
+            long readCount,
+            long writeCount,
+            long skipCount,
+            long commitCount,
+            long rollbackCount,
+            Long durationMillis
+    ) {
+
+        static StepStatus from(StepExecution stepExecution) {
+            return new StepStatus(
+                    stepExecution.getStepName(),
+                    stepExecution.getStatus().name(),
+                    stepExecution.getReadCount(),
+                    stepExecution.getWriteCount(),
+                    stepExecution.getSkipCount(),
+                    stepExecution.getCommitCount(),
+                    stepExecution.getRollbackCount(),
+                    elapsedMillis(stepExecution.getStartTime(), stepExecution.getEndTime())
+            );
+        }
+    }
+
+    private static final String STEP_TYPE_KEY = "batch.stepType";
+
+    public static JobExecutionStatus from(JobExecution jobExecution) {
+        final List<StepExecution> stepExecutions = jobExecution.getStepExecutions().stream()
+                .sorted(Comparator.comparing(StepExecution::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        final List<StepExecution> counted = stepExecutions.stream()
+                .filter(stepExecution -> !isPartitionManager(stepExecution))
+                .toList();
+        return new JobExecutionStatus(
+                jobExecution.getId(),
+                jobExecution.getJobInstance().getJobName(),
+                jobExecution.getStatus().name(),
+                jobExecution.getExitStatus().getExitCode(),
+                jobExecution.getStartTime(),
+                jobExecution.getEndTime(),
+                elapsedMillis(jobExecution.getStartTime(), jobExecution.getEndTime()),
+                counted.stream().mapToLong(StepExecution::getReadCount).sum(),
+                counted.stream().mapToLong(StepExecution::getWriteCount).sum(),
+                counted.stream().mapToLong(StepExecution::getSkipCount).sum(),
+                stepExecutions.stream().map(StepStatus::from).toList()
+        );
+    }
+
+    private static boolean isPartitionManager(StepExecution stepExecution) {
+        return PartitionStep.class.getName().equals(stepExecution.getExecutionContext().get(STEP_TYPE_KEY));
+    }
+
+    private static Long elapsedMillis(LocalDateTime start, LocalDateTime end) {
+        if (start == null) {
+            return null;
+        }
+        return Duration.between(start, end == null ? LocalDateTime.now() : end).toMillis();
+    }
+}
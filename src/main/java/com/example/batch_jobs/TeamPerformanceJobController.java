@@ -1,42 +1,99 @@
 package com.example.batch_jobs;
 
+import com.example.batch_jobs.teams.launch.TeamPerformanceJobLaunches;
+import com.example.batch_jobs.teams.processor.TeamRankedAverageScoresItemProcessor;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionException;
-import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+/**
+ * Launches the team performance job without waiting for it and exposes the status of its executions.
+ * The job runs on the launcher's task executor, the request only waits for the execution to be created.
+ * Duplicate launches are coalesced by {@link TeamPerformanceJobLaunches}; a completed execution served from
+ * there is answered with {@code 200} instead of {@code 202}.
+ */
 @RestController
 @RequestMapping("/jobs/team-performance")
 @Profile("performance")
 public class TeamPerformanceJobController {
 
     private final JobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
+    private final TeamPerformanceJobLaunches launches;
     private final Job job;
 
-    public TeamPerformanceJobController(JobLauncher jobLauncher,
+    public TeamPerformanceJobController(@Qualifier("asynchronousJobLauncher") JobLauncher jobLauncher,
+                                        JobExplorer jobExplorer,
+                                        TeamPerformanceJobLaunches launches,
                                         @Qualifier("teamPerformanceJob") Job job) {
         this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
+        this.launches = launches;
         this.job = job;
     }
 
+    @PostMapping
+    public ResponseEntity<JobExecutionStatus> launchTeamPerformanceJob(@RequestParam(name = "scoreRank") List<Integer> scoreRanks)
+            throws JobExecutionException {
+        final JobExecution jobExecution = launches.launch(jobParameters(scoreRanks).toJobParameters(),
+                jobParameters -> jobLauncher.run(job, jobParameters));
+        return ResponseEntity
+                .status(jobExecution.getStatus() == BatchStatus.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .replaceQuery(null)
+                        .path("/{id}")
+                        .buildAndExpand(jobExecution.getId())
+                        .toUri())
+                .body(JobExecutionStatus.from(jobExecution));
+    }
+
+    /**
+     * @deprecated launching on {@code GET} is kept for existing callers, use {@code POST} instead.
+     */
+    @Deprecated
     @GetMapping
-    public ResponseEntity<Object> runTeamPerformanceJob(@RequestParam(name = "scoreRank") Integer scoreRank)
+    public ResponseEntity<JobExecutionStatus> runTeamPerformanceJob(@RequestParam(name = "scoreRank") List<Integer> scoreRanks)
             throws JobExecutionException {
-        final JobParameters jobParameters = new JobParametersBuilder()
-                .addJobParameter("correlationId", UUID.randomUUID(), UUID.class)
-                .addJobParameter("scoreRank", scoreRank, Integer.class)
-                .toJobParameters();
-        jobLauncher.run(job, jobParameters);
-        return ResponseEntity.ok(null);
+        return launchTeamPerformanceJob(scoreRanks);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobExecutionStatus> getTeamPerformanceJobExecution(@PathVariable("id") long id) {
+        final JobExecution jobExecution = jobExplorer.getJobExecution(id);
+        if (jobExecution == null || !job.getName().equals(jobExecution.getJobInstance().getJobName())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(JobExecutionStatus.from(jobExecution));
+    }
+
+    private static JobParametersBuilder jobParameters(List<Integer> scoreRanks) {
+        final JobParametersBuilder jobParameters = new JobParametersBuilder()
+                .addJobParameter(TeamPerformanceJobLaunches.CORRELATION_ID_PARAMETER, UUID.randomUUID(), UUID.class);
+        if (scoreRanks.size() == 1) {
+            jobParameters.addJobParameter("scoreRank", scoreRanks.getFirst(), Integer.class);
+        } else {
+            final String ranks = scoreRanks.stream().map(String::valueOf).collect(Collectors.joining(","));
+            jobParameters.addString(TeamRankedAverageScoresItemProcessor.SCORE_RANKS_PARAMETER, ranks);
+        }
+        return jobParameters;
     }
 }
@@ -3,6 +3,8 @@ package com.example.batch_jobs.coins.threaded.multi;
 import com.example.batch_jobs.coins.GeneralCoinsJobConfiguration;
 import com.example.batch_jobs.coins.domain.Coin;
 import com.example.batch_jobs.coins.domain.PlayerScore;
+import com.example.batch_jobs.configuration.AdaptiveCompletionPolicy;
+import com.example.batch_jobs.configuration.AdaptiveCompletionPolicyFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -36,13 +38,16 @@ public class MultiThreadCoinsJobConfiguration extends GeneralCoinsJobConfigurati
                                      @Qualifier("coinScoreAggregator") ItemProcessor<Coin, PlayerScore> processor,
                                      @Qualifier("playerScoreItemWriter") ItemWriter<PlayerScore> writer,
                                      @Qualifier("taskExecutor") TaskExecutor taskExecutor,
+                                     AdaptiveCompletionPolicyFactory completionPolicies,
                                      JobRepository jobRepository,
                                      PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("calculate_player_scores");
         return new StepBuilder("calculate_player_scores", jobRepository)
-                .<Coin, PlayerScore>chunk(1, transactionManager)
+                .<Coin, PlayerScore>chunk(completionPolicy, transactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
+                .listener(completionPolicy)
                 .taskExecutor(taskExecutor)
                 .allowStartIfComplete(true)
                 .build();
@@ -0,0 +1,105 @@
+package com.example.batch_jobs.configuration;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Commit interval that adapts to the measured cost of each chunk. A chunk is timed from {@code beforeChunk}
+ * to {@code afterChunk}, i.e. including its commit and the job repository update. The interval doubles while
+ * throughput keeps up, backs off when throughput drops, and halves when a chunk exceeds the target duration.
+ * Must be registered both as the completion policy and as a chunk listener of the same step.
+ */
+public class AdaptiveCompletionPolicy extends CompletionPolicySupport implements ChunkListener {
+
+    private static final double THROUGHPUT_TOLERANCE = 0.9;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetChunkNanos;
+    private final ThreadLocal<ChunkSizeContext> currentChunk = new ThreadLocal<>();
+    private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+
+    private volatile int chunkSize;
+    private double lastThroughput;
+
+    public AdaptiveCompletionPolicy(int minChunkSize, int maxChunkSize, Duration targetChunkDuration) {
+        if (minChunkSize < 1 || maxChunkSize < minChunkSize) {
+            throw new IllegalArgumentException("Invalid chunk size bounds [%d, %d]".formatted(minChunkSize, maxChunkSize));
+        }
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetChunkNanos = targetChunkDuration.toNanos();
+        this.chunkSize = minChunkSize;
+    }
+
+    @Override
+    @NonNull
+    public RepeatContext start(RepeatContext parent) {
+        final ChunkSizeContext context = new ChunkSizeContext(parent, chunkSize);
+        currentChunk.set(context);
+        return context;
+    }
+
+    @Override
+    public boolean isComplete(@NonNull RepeatContext context) {
+        final ChunkSizeContext chunk = (ChunkSizeContext) context;
+        return chunk.getStartedCount() >= chunk.limit;
+    }
+
+    @Override
+    public void beforeChunk(@NonNull ChunkContext context) {
+        chunkStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        final Long start = chunkStart.get();
+        final ChunkSizeContext chunk = currentChunk.get();
+        clear();
+        if (start != null && chunk != null && chunk.getStartedCount() >= chunk.limit) {
+            adapt(chunk.limit, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void afterChunkError(@NonNull ChunkContext context) {
+        clear();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private synchronized void adapt(int items, long nanos) {
+        final double throughput = items / (double) Math.max(nanos, 1L);
+        if (nanos > targetChunkNanos) {
+            chunkSize = Math.max(minChunkSize, items / 2);
+        } else if (throughput >= lastThroughput * THROUGHPUT_TOLERANCE) {
+            chunkSize = (int) Math.min(maxChunkSize, 2L * items);
+        } else {
+            chunkSize = Math.max(minChunkSize, items * 3 / 4);
+        }
+        lastThroughput = throughput;
+    }
+
+    private void clear() {
+        currentChunk.remove();
+        chunkStart.remove();
+    }
+
+    private static class ChunkSizeContext extends RepeatContextSupport {
+
+        private final int limit;
+
+        private ChunkSizeContext(RepeatContext parent, int limit) {
+            super(parent);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.batch_jobs.configuration;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class AdaptiveCompletionPolicyFactory {
+
+    private static final String PREFIX = "chunk";
+
+    private final Environment environment;
+
+    public AdaptiveCompletionPolicyFactory(Environment environment) {
+        this.environment = environment;
+    }
+
+    public AdaptiveCompletionPolicy forStep(String stepName) {
+        return new AdaptiveCompletionPolicy(
+                property(stepName, "min", Integer.class, 1),
+                property(stepName, "max", Integer.class, 1000),
+                property(stepName, "target-duration", Duration.class, Duration.ofSeconds(1)));
+    }
+
+    private <T> T property(String stepName, String name, Class<T> type, T defaultValue) {
+        final T fallback = environment.getProperty("%s.%s".formatted(PREFIX, name), type, defaultValue);
+        return environment.getProperty("%s.steps.%s.%s".formatted(PREFIX, stepName, name), type, fallback);
+    }
+}
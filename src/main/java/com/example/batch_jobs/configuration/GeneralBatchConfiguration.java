@@ -3,12 +3,12 @@ package com.example.batch_jobs.configuration;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.batch.BatchDataSource;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
-import org.springframework.core.task.TaskExecutor;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
 import javax.sql.DataSource;
@@ -28,9 +28,11 @@ public class GeneralBatchConfiguration {
     }
 
     @Bean
-    public JobLauncher asynchronousJobLauncher(JobRepository jobRepository) {
+    public JobLauncher asynchronousJobLauncher(JobRepository jobRepository,
+                                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         final TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
-        final TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor();
+        final SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("job-launcher-");
+        taskExecutor.setVirtualThreads(virtualThreads);
         jobLauncher.setJobRepository(jobRepository);
         jobLauncher.setTaskExecutor(taskExecutor);
         return jobLauncher;
@@ -0,0 +1,109 @@
+package com.example.batch_jobs.domain;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch over fixed-point values, such as readings or scores in hundredths. Values are kept
+ * exactly until {@code exactCapacity} is exceeded, then folded into a fixed-width histogram whose bucket width
+ * bounds the quantile error.
+ */
+public class LongQuantileSketch implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int exactCapacity;
+    private final long bucketWidth;
+
+    private long[] values = new long[16];
+    private int size;
+
+    private long[] buckets;
+    private long firstBucket;
+
+    public LongQuantileSketch(int exactCapacity, long bucketWidth) {
+        this.exactCapacity = exactCapacity;
+        this.bucketWidth = bucketWidth;
+    }
+
+    public void accept(long value) {
+        if (buckets != null) {
+            addToBucket(Math.floorDiv(value, bucketWidth), 1L);
+            return;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        values[size++] = value;
+        if (size > exactCapacity) {
+            toHistogram();
+        }
+    }
+
+    public void merge(LongQuantileSketch other) {
+        if (other.buckets == null) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.values[i]);
+            }
+            return;
+        }
+        if (buckets == null) {
+            toHistogram();
+        }
+        for (int i = 0; i < other.buckets.length; i++) {
+            if (other.buckets[i] > 0) {
+                addToBucket(other.firstBucket + i, other.buckets[i]);
+            }
+        }
+    }
+
+    /**
+     * Nearest-rank quantile, exact while the sketch holds raw values, otherwise the middle of the matching bucket.
+     */
+    public long quantile(double quantile, long count) {
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        if (buckets == null) {
+            Arrays.sort(values, 0, size);
+            return values[(int) Math.min(rank, size) - 1];
+        }
+        long seen = 0L;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return (firstBucket + i) * bucketWidth + bucketWidth / 2;
+            }
+        }
+        return (firstBucket + buckets.length) * bucketWidth - 1;
+    }
+
+    public void reset() {
+        size = 0;
+        buckets = null;
+    }
+
+    private void toHistogram() {
+        buckets = new long[0];
+        for (int i = 0; i < size; i++) {
+            addToBucket(Math.floorDiv(values[i], bucketWidth), 1L);
+        }
+        size = 0;
+    }
+
+    private void addToBucket(long bucket, long count) {
+        if (buckets.length == 0) {
+            buckets = new long[16];
+            firstBucket = bucket;
+        } else if (bucket < firstBucket) {
+            final int shift = Math.toIntExact(firstBucket - bucket);
+            final long[] grown = new long[buckets.length + shift];
+            System.arraycopy(buckets, 0, grown, shift, buckets.length);
+            buckets = grown;
+            firstBucket = bucket;
+        } else if (bucket - firstBucket >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.toIntExact(Math.max(bucket - firstBucket + 1, (long) buckets.length << 1)));
+        }
+        buckets[(int) (bucket - firstBucket)] += count;
+    }
+}
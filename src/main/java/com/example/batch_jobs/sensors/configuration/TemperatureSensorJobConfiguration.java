@@ -1,36 +1,73 @@
 package com.example.batch_jobs.sensors.configuration;
 
+import com.example.batch_jobs.configuration.AdaptiveCompletionPolicy;
+import com.example.batch_jobs.configuration.AdaptiveCompletionPolicyFactory;
 import com.example.batch_jobs.sensors.domain.AbnormalTemperatureAlert;
 import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import com.example.batch_jobs.sensors.domain.DailySensorMeasures;
+import com.example.batch_jobs.sensors.domain.DailySensorScaledTemperatures;
 import com.example.batch_jobs.sensors.domain.DailySensorTemperatures;
+import com.example.batch_jobs.sensors.partition.NewlineAlignedFilePartitioner;
+import com.example.batch_jobs.sensors.partition.SensorFileGroupPartitioner;
+import com.example.batch_jobs.sensors.processor.DailyTemperatureAggregator;
+import com.example.batch_jobs.sensors.processor.EwmaAnomalyDetector;
+import com.example.batch_jobs.sensors.reader.DailyTemperatureBinaryItemReader;
+import com.example.batch_jobs.sensors.reader.DailyTemperatureXmlItemReader;
+import com.example.batch_jobs.sensors.reader.MappedSensorFileItemReader;
+import com.example.batch_jobs.sensors.reader.ScaledTemperatureLineMapper;
+import com.example.batch_jobs.sensors.reader.SensorFileItemReader;
+import com.example.batch_jobs.sensors.sort.ExternalSortTasklet;
+import com.example.batch_jobs.sensors.writer.AlertingItemWriter;
+import com.example.batch_jobs.sensors.writer.DailyTemperatureBinaryItemWriter;
+import com.example.batch_jobs.sensors.writer.DailyTemperatureXmlItemWriter;
 import com.thoughtworks.xstream.security.ExplicitTypePermission;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.MultiResourceItemReader;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.file.builder.MultiResourceItemReaderBuilder;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
 import org.springframework.batch.item.xml.builder.StaxEventItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.batch.item.xml.builder.StaxEventItemWriterBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.NonNull;
 import org.springframework.oxm.Marshaller;
 import org.springframework.oxm.Unmarshaller;
 import org.springframework.oxm.xstream.XStreamMarshaller;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.FileSystemUtils;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
@@ -44,31 +81,92 @@ public class TemperatureSensorJobConfiguration {
 
     @Bean
     public Job processTemperatureSensor(@Qualifier("sensorFileToXml") Step readDataAndFormXml,
+                                        @Qualifier("partitionedSensorFileToXml") Step readPartitionsAndFormXml,
+                                        @Qualifier("mergeSensorPartitions") Step mergePartitions,
                                         @Qualifier("xmlFileToReport") Step analyseXmlAndReport,
+                                        @Qualifier("sensorFileToXmlAndReport") Step readDataAndReport,
+                                        @Qualifier("sensorFilesToXml") Step readFilesAndFormXml,
+                                        @Qualifier("sortSensorReport") Step sortReport,
+                                        @Qualifier("exportXmlReport") Step exportXmlReport,
+                                        @Value("${sensors.sort.enabled:false}") boolean sorted,
+                                        @Value("${sensors.intermediate.binary:false}") boolean binary,
+                                        @Value("${sensors.intermediate.export-xml:true}") boolean exportXml,
+                                        @Value("${sensors.files.enabled:false}") boolean multiFile,
+                                        @Value("${sensors.partitioned.enabled:false}") boolean partitioned,
+                                        @Value("${sensors.pipelined:false}") boolean pipelined,
                                         JobRepository jobRepository) {
-        return new JobBuilder("aggregate_and_report_xml", jobRepository)
-                .start(readDataAndFormXml)
-                .next(analyseXmlAndReport)
-                .build();
+        final JobBuilder jobBuilder = new JobBuilder("aggregate_and_report_xml", jobRepository);
+        final SimpleJobBuilder steps;
+        if (multiFile || partitioned) {
+            steps = jobBuilder.start(multiFile ? readFilesAndFormXml : readPartitionsAndFormXml)
+                    .next(mergePartitions);
+        } else if (pipelined) {
+            steps = jobBuilder.start(readDataAndReport);
+        } else {
+            steps = jobBuilder.start(readDataAndFormXml);
+        }
+        if (sorted) {
+            steps.next(sortReport);
+        }
+        if (!pipelined || multiFile || partitioned) {
+            steps.next(analyseXmlAndReport);
+        }
+        if (binary && exportXml) {
+            steps.next(exportXmlReport);
+        }
+        return steps.build();
     }
 
     @Bean
-    public Step sensorFileToXml(@Qualifier("sensorFileReader") ItemReader<DailySensorTemperatures> reader,
-                                @Qualifier("sensorDataProcessor") ItemProcessor<DailySensorTemperatures, DailySensorAggregatedTemperatures> processor,
-                                @Qualifier("dailyTemperatureXmlWriter") ItemWriter<DailySensorAggregatedTemperatures> writer,
+    public Step sensorFileToXml(@Qualifier("sensorFileReader") ItemReader<? extends DailySensorMeasures> reader,
+                                @Qualifier("sensorDataProcessor") ItemProcessor<DailySensorMeasures, DailySensorAggregatedTemperatures> processor,
+                                @Qualifier("aggregatedTemperaturesWriter") ItemWriter<DailySensorAggregatedTemperatures> writer,
+                                AdaptiveCompletionPolicyFactory completionPolicies,
                                 JobRepository jobRepository,
                                 PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("aggregate_sensor_data");
         return new StepBuilder("aggregate_sensor_data", jobRepository)
-                .<DailySensorTemperatures, DailySensorAggregatedTemperatures>chunk(1, transactionManager)
+                .<DailySensorMeasures, DailySensorAggregatedTemperatures>chunk(completionPolicy, transactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
+                .listener(completionPolicy)
                 .allowStartIfComplete(false)
                 .build();
     }
 
     @Bean
-    public ItemReader<DailySensorTemperatures> sensorFileReader(@Value("classpath:temperatures") Resource origin) {
+    public Step sensorFileToXmlAndReport(@Qualifier("sensorFileReader") ItemReader<? extends DailySensorMeasures> reader,
+                                         @Qualifier("sensorDataProcessor") ItemProcessor<DailySensorMeasures, DailySensorAggregatedTemperatures> processor,
+                                         @Qualifier("aggregatedTemperaturesWriter") ItemWriter<DailySensorAggregatedTemperatures> aggregatedWriter,
+                                         @Qualifier("abnormalTemperatureAnalyser") ItemProcessor<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert> baselineAnalyser,
+                                         @Qualifier("ewmaAnomalyDetector") EwmaAnomalyDetector ewmaAnalyser,
+                                         @Value("${sensors.anomaly.ewma.enabled:false}") boolean ewma,
+                                         @Qualifier("abnormalTemperatureCsvWriter") ItemWriter<AbnormalTemperatureAlert> alertWriter,
+                                         AdaptiveCompletionPolicyFactory completionPolicies,
+                                         JobRepository jobRepository,
+                                         PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("aggregate_and_analyse_sensor_data");
+        return new StepBuilder("aggregate_and_analyse_sensor_data", jobRepository)
+                .<DailySensorMeasures, DailySensorAggregatedTemperatures>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(new CompositeItemWriter<>(aggregatedWriter, new AlertingItemWriter(ewma ? ewmaAnalyser : baselineAnalyser, alertWriter)))
+                .listener(completionPolicy)
+                .allowStartIfComplete(false)
+                .build();
+    }
+
+    @Bean
+    public ItemReader<? extends DailySensorMeasures> sensorFileReader(@Value("${sensors.input:classpath:temperatures}") Resource origin,
+                                                                      @Value("${sensors.reader.fixed-point:false}") boolean fixedPoint) {
+        if (fixedPoint) {
+            return new FlatFileItemReaderBuilder<DailySensorScaledTemperatures>()
+                    .name("sensor_data_reader")
+                    .resource(origin)
+                    .lineMapper(new ScaledTemperatureLineMapper())
+                    .build();
+        }
         final DelimitedLineTokenizer delimitedLineTokenizer = new DelimitedLineTokenizer(":");
         delimitedLineTokenizer.setNames("date", "measures");
         return new FlatFileItemReaderBuilder<DailySensorTemperatures>()
@@ -87,27 +185,242 @@ public class TemperatureSensorJobConfiguration {
     }
 
     @Bean
-    public ItemProcessor<DailySensorTemperatures, DailySensorAggregatedTemperatures> sensorDataProcessor() {
-        return item -> {
-            final String date = DateTimeFormatter.ISO_ORDINAL_DATE.format(item.date());
-            final BigDecimal min = item.temperatures().stream().min(Comparator.naturalOrder()).orElse(BigDecimal.ZERO);
-            final BigDecimal sum = item.temperatures().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
-            final BigDecimal count = BigDecimal.valueOf(item.temperatures().size());
-            final BigDecimal max = item.temperatures().stream().max(Comparator.naturalOrder()).orElse(BigDecimal.ZERO);
-            return new DailySensorAggregatedTemperatures(date, min, sum.divide(count, new MathContext(2)), max);
-        };
+    public Step partitionedSensorFileToXml(@Qualifier("sensorPartitionToXml") Step worker,
+                                           @Qualifier("sensorFilePartitioner") Partitioner partitioner,
+                                           @Qualifier("sensorPartitionExecutor") TaskExecutor taskExecutor,
+                                           @Value("${sensors.partitioned.grid-size:4}") int gridSize,
+                                           JobRepository jobRepository) {
+        return new StepBuilder("aggregate_sensor_data", jobRepository)
+                .partitioner("aggregate_sensor_data_partition", partitioner)
+                .step(worker)
+                .taskExecutor(taskExecutor)
+                .gridSize(gridSize)
+                .build();
     }
 
     @Bean
-    public ItemWriter<?> dailyTemperatureXmlWriter(@Qualifier("dailyTemperatureXmlMarshaller") Marshaller marshaller,
-                                                   @Value("file:report.xml") WritableResource destination) {
-            return new StaxEventItemWriterBuilder<DailySensorTemperatures>()
-                    .name("aggregated_temperatures_xml_writer")
-                    .resource(destination)
-                    .rootTagName("temperatures")
-                    .marshaller(marshaller)
-                    .overwriteOutput(true)
-                    .build();
+    public Partitioner sensorFilePartitioner(@Value("${sensors.input:classpath:temperatures}") Resource origin) {
+        return new NewlineAlignedFilePartitioner(origin);
+    }
+
+    @Bean
+    public TaskExecutor sensorPartitionExecutor(@Value("${sensors.partitioned.grid-size:4}") int gridSize) {
+        final SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("sensor-partition-");
+        taskExecutor.setConcurrencyLimit(gridSize);
+        return taskExecutor;
+    }
+
+    @Bean
+    public Step sensorPartitionToXml(@Qualifier("mappedSensorFileReader") ItemReader<DailySensorScaledTemperatures> reader,
+                                     @Qualifier("sensorDataProcessor") ItemProcessor<DailySensorMeasures, DailySensorAggregatedTemperatures> processor,
+                                     @Qualifier("sensorPartitionWriter") ItemWriter<DailySensorAggregatedTemperatures> writer,
+                                     AdaptiveCompletionPolicyFactory completionPolicies,
+                                     JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("aggregate_sensor_data_partition");
+        return new StepBuilder("aggregate_sensor_data_partition", jobRepository)
+                .<DailySensorMeasures, DailySensorAggregatedTemperatures>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .listener(completionPolicy)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public MappedSensorFileItemReader mappedSensorFileReader(@Value("#{stepExecutionContext['sensorFile']}") String file,
+                                                             @Value("#{stepExecutionContext['startOffset']}") long startOffset,
+                                                             @Value("#{stepExecutionContext['endOffset']}") long endOffset) {
+        return new MappedSensorFileItemReader("mapped_sensor_data_reader", Path.of(file), startOffset, endOffset);
+    }
+
+    @Bean
+    public Step sensorFilesToXml(@Qualifier("sensorFileGroupToXml") Step worker,
+                                 @Qualifier("sensorFileGroupPartitioner") Partitioner partitioner,
+                                 @Qualifier("sensorPartitionExecutor") TaskExecutor taskExecutor,
+                                 @Value("${sensors.partitioned.grid-size:4}") int gridSize,
+                                 JobRepository jobRepository) {
+        return new StepBuilder("aggregate_sensor_files", jobRepository)
+                .partitioner("aggregate_sensor_files_partition", partitioner)
+                .step(worker)
+                .taskExecutor(taskExecutor)
+                .gridSize(gridSize)
+                .build();
+    }
+
+    @Bean
+    public Partitioner sensorFileGroupPartitioner(ResourcePatternResolver resourcePatternResolver,
+                                                  @Value("${sensors.files.input:file:sensors/*}") String locationPattern,
+                                                  @Value("${sensors.files.groups:0}") int groups) {
+        return new SensorFileGroupPartitioner(resourcePatternResolver, locationPattern, groups);
+    }
+
+    @Bean
+    public Step sensorFileGroupToXml(@Qualifier("sensorFileGroupReader") ItemReader<DailySensorScaledTemperatures> reader,
+                                     @Qualifier("sensorDataProcessor") ItemProcessor<DailySensorMeasures, DailySensorAggregatedTemperatures> processor,
+                                     @Qualifier("sensorPartitionWriter") ItemWriter<DailySensorAggregatedTemperatures> writer,
+                                     AdaptiveCompletionPolicyFactory completionPolicies,
+                                     JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("aggregate_sensor_files_partition");
+        return new StepBuilder("aggregate_sensor_files_partition", jobRepository)
+                .<DailySensorMeasures, DailySensorAggregatedTemperatures>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .listener(completionPolicy)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public MultiResourceItemReader<DailySensorScaledTemperatures> sensorFileGroupReader(@Value("#{stepExecution}") StepExecution stepExecution) {
+        final Resource[] files = SensorFileGroupPartitioner.sensorFiles(stepExecution.getExecutionContext()).stream()
+                .map(FileSystemResource::new)
+                .toArray(Resource[]::new);
+        return new MultiResourceItemReaderBuilder<DailySensorScaledTemperatures>()
+                .name("sensor_files_reader")
+                .resources(files)
+                .delegate(new SensorFileItemReader("sensor_file_reader"))
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamWriter<DailySensorAggregatedTemperatures> sensorPartitionWriter(
+            @Qualifier("dailyTemperatureXmlMarshaller") Marshaller marshaller,
+            @Value("${sensors.partitioned.work-directory:sensor-partitions}/#{stepExecution.jobExecution.jobInstance.instanceId}/#{stepExecutionContext['partitionFile']}") String destination,
+            @Value("${sensors.xml.streaming:false}") boolean streaming,
+            @Value("${sensors.intermediate.binary:false}") boolean binary
+    ) {
+        return aggregatedWriter("aggregated_temperatures_partition_writer", new FileSystemResource(destination + extension(binary)), marshaller, streaming, binary);
+    }
+
+    @Bean
+    public Step mergeSensorPartitions(@Qualifier("sensorPartitionsReader") ItemReader<DailySensorAggregatedTemperatures> reader,
+                                      @Qualifier("aggregatedTemperaturesWriter") ItemWriter<DailySensorAggregatedTemperatures> writer,
+                                      @Value("${sensors.partitioned.work-directory:sensor-partitions}") String workDirectory,
+                                      AdaptiveCompletionPolicyFactory completionPolicies,
+                                      JobRepository jobRepository,
+                                      PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("merge_sensor_partitions");
+        return new StepBuilder("merge_sensor_partitions", jobRepository)
+                .<DailySensorAggregatedTemperatures, DailySensorAggregatedTemperatures>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                .writer(writer)
+                .listener(completionPolicy)
+                .listener(new StepExecutionListener() {
+                    @Override
+                    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+                        if (ExitStatus.COMPLETED.equals(stepExecution.getExitStatus())) {
+                            final Long instanceId = stepExecution.getJobExecution().getJobInstance().getInstanceId();
+                            try {
+                                FileSystemUtils.deleteRecursively(Path.of(workDirectory, String.valueOf(instanceId)));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                        return null;
+                    }
+                })
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public MultiResourceItemReader<DailySensorAggregatedTemperatures> sensorPartitionsReader(
+            @Qualifier("dailyTemperatureXmlMarshaller") Unmarshaller unmarshaller,
+            @Value("file:${sensors.partitioned.work-directory:sensor-partitions}/#{stepExecution.jobExecution.jobInstance.instanceId}/report-*") String partitionPattern,
+            @Value("${sensors.xml.streaming:false}") boolean streaming,
+            @Value("${sensors.intermediate.binary:false}") boolean binary,
+            ResourcePatternResolver resourcePatternResolver
+    ) throws IOException {
+        final ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> delegate =
+                aggregatedReader("aggregated_temperatures_partition_reader", unmarshaller, streaming, binary);
+        return new MultiResourceItemReaderBuilder<DailySensorAggregatedTemperatures>()
+                .name("aggregated_temperatures_partitions_reader")
+                .resources(resourcePatternResolver.getResources(partitionPattern + extension(binary)))
+                .comparator(NewlineAlignedFilePartitioner.PARTITION_FILE_ORDER)
+                .delegate(delegate)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public DailyTemperatureAggregator sensorDataProcessor(@Value("${sensors.statistics.variance:false}") boolean variance,
+                                                          @Value("${sensors.statistics.percentiles:false}") boolean percentiles) {
+        return new DailyTemperatureAggregator(variance, percentiles);
+    }
+
+    @Bean
+    public ItemStreamWriter<DailySensorAggregatedTemperatures> dailyTemperatureXmlWriter(@Qualifier("dailyTemperatureXmlMarshaller") Marshaller marshaller,
+                                                                                         @Value("file:report.xml") WritableResource destination,
+                                                                                         @Value("${sensors.xml.streaming:false}") boolean streaming) {
+        return xmlWriter("aggregated_temperatures_xml_writer", destination, marshaller, streaming);
+    }
+
+    @Bean
+    public ItemStreamWriter<DailySensorAggregatedTemperatures> aggregatedTemperaturesWriter(@Qualifier("dailyTemperatureXmlMarshaller") Marshaller marshaller,
+                                                                                            @Value("${sensors.xml.streaming:false}") boolean streaming,
+                                                                                            @Value("${sensors.intermediate.binary:false}") boolean binary) {
+        final String name = binary ? "aggregated_temperatures_binary_writer" : "aggregated_temperatures_xml_writer";
+        return aggregatedWriter(name, intermediateReport(binary), marshaller, streaming, binary);
+    }
+
+    private static ItemStreamWriter<DailySensorAggregatedTemperatures> aggregatedWriter(String name,
+                                                                                      WritableResource destination,
+                                                                                      Marshaller marshaller,
+                                                                                      boolean streaming,
+                                                                                      boolean binary) {
+        return binary ? new DailyTemperatureBinaryItemWriter(name, destination) : xmlWriter(name, destination, marshaller, streaming);
+    }
+
+    private static ItemStreamWriter<DailySensorAggregatedTemperatures> xmlWriter(String name,
+                                                                               WritableResource destination,
+                                                                               Marshaller marshaller,
+                                                                               boolean streaming) {
+        if (streaming) {
+            return new DailyTemperatureXmlItemWriter(name, destination, "temperatures");
+        }
+        return new StaxEventItemWriterBuilder<DailySensorAggregatedTemperatures>()
+                .name(name)
+                .resource(destination)
+                .rootTagName("temperatures")
+                .marshaller(marshaller)
+                .overwriteOutput(true)
+                .build();
+    }
+
+    @Bean
+    public Step sortSensorReport(@Qualifier("sensorReportSortTasklet") Tasklet tasklet,
+                                 JobRepository jobRepository,
+                                 PlatformTransactionManager transactionManager) {
+        return new StepBuilder("sort_sensor_report", jobRepository)
+                .tasklet(tasklet, transactionManager)
+                .build();
+    }
+
+    @Bean
+    public ExternalSortTasklet sensorReportSortTasklet(@Qualifier("dailyTemperatureXmlMarshaller") Marshaller marshaller,
+                                                       @Qualifier("dailyTemperatureXmlMarshaller") Unmarshaller unmarshaller,
+                                                       @Value("${sensors.xml.streaming:false}") boolean streaming,
+                                                       @Value("${sensors.intermediate.binary:false}") boolean binary,
+                                                       @Value("${sensors.sort.run-size:100000}") int runSize,
+                                                       @Value("${sensors.sort.merge-fan-in:64}") int mergeFanIn,
+                                                       @Value("${sensors.sort.temp-directory:${java.io.tmpdir}}") String tempDirectory) throws IOException {
+        final WritableResource report = intermediateReport(binary);
+        final Path target = report.getFile().toPath().toAbsolutePath();
+        final Path sortedFile = target.resolveSibling(target.getFileName() + ".sorted");
+        final ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> reader =
+                aggregatedReader("aggregated_temperatures_sort_reader", unmarshaller, streaming, binary);
+        reader.setResource(report);
+        final ItemStreamWriter<DailySensorAggregatedTemperatures> writer =
+                aggregatedWriter("aggregated_temperatures_sorted_writer", new FileSystemResource(sortedFile), marshaller, streaming, binary);
+        final Comparator<DailySensorAggregatedTemperatures> byDateAndSensor = Comparator
+                .comparing(DailySensorAggregatedTemperatures::getDate)
+                .thenComparing(DailySensorAggregatedTemperatures::getSensor, Comparator.nullsFirst(Comparator.naturalOrder()));
+        return new ExternalSortTasklet(reader, writer, sortedFile, target, byDateAndSensor, runSize, mergeFanIn, Path.of(tempDirectory));
     }
 
     @Bean
@@ -115,6 +428,7 @@ public class TemperatureSensorJobConfiguration {
         final XStreamMarshaller marshaller = new XStreamMarshaller();
         final Map<String, Class<?>> aliases = Map.of(
                 "measure", DailySensorAggregatedTemperatures.class,
+                "sensor", String.class,
                 "date", String.class,
                 "min", BigDecimal.class,
                 "avg", BigDecimal.class,
@@ -128,26 +442,73 @@ public class TemperatureSensorJobConfiguration {
     }
 
     @Bean
-    public Step xmlFileToReport(@Qualifier("xmlAggregatedResultReader") ItemReader<DailySensorAggregatedTemperatures> reader,
-                                @Qualifier("abnormalTemperatureAnalyser") ItemProcessor<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert> processor,
+    public Step xmlFileToReport(@Qualifier("aggregatedResultReader") ItemReader<DailySensorAggregatedTemperatures> reader,
+                                @Qualifier("abnormalTemperatureAnalyser") ItemProcessor<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert> baselineProcessor,
+                                @Qualifier("ewmaAnomalyDetector") EwmaAnomalyDetector ewmaProcessor,
+                                @Value("${sensors.anomaly.ewma.enabled:false}") boolean ewma,
                                 @Qualifier("abnormalTemperatureCsvWriter") ItemWriter<AbnormalTemperatureAlert> writer,
+                                AdaptiveCompletionPolicyFactory completionPolicies,
                                 JobRepository jobRepository,
                                 PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("analyse_xml_and_report");
         return new StepBuilder("analyse_xml_and_report", jobRepository)
-                .<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert>chunk(1, transactionManager)
+                .<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert>chunk(completionPolicy, transactionManager)
                 .reader(reader)
-                .processor(processor)
+                .processor(ewma ? ewmaProcessor : baselineProcessor)
                 .writer(writer)
+                .listener(completionPolicy)
                 .build();
     }
 
     @Bean
-    public ItemReader<DailySensorAggregatedTemperatures> xmlAggregatedResultReader(@Qualifier("dailyTemperatureXmlMarshaller") Unmarshaller marshaller,
-                                                                                   @Value("file:report.xml") WritableResource origin) {
+    public ItemReader<DailySensorAggregatedTemperatures> aggregatedResultReader(@Qualifier("dailyTemperatureXmlMarshaller") Unmarshaller marshaller,
+                                                                                @Value("${sensors.xml.streaming:false}") boolean streaming,
+                                                                                @Value("${sensors.intermediate.binary:false}") boolean binary) {
+        final String name = binary ? "aggregated_temperatures_binary_reader" : "aggregated_temperatures_xml_reader";
+        final ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> reader =
+                aggregatedReader(name, marshaller, streaming, binary);
+        reader.setResource(intermediateReport(binary));
+        return reader;
+    }
+
+    @Bean
+    public Step exportXmlReport(@Qualifier("dailyTemperatureXmlWriter") ItemWriter<DailySensorAggregatedTemperatures> writer,
+                                AdaptiveCompletionPolicyFactory completionPolicies,
+                                JobRepository jobRepository,
+                                PlatformTransactionManager transactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("export_xml_report");
+        return new StepBuilder("export_xml_report", jobRepository)
+                .<DailySensorAggregatedTemperatures, DailySensorAggregatedTemperatures>chunk(completionPolicy, transactionManager)
+                .reader(new DailyTemperatureBinaryItemReader("aggregated_temperatures_export_reader", intermediateReport(true)))
+                .writer(writer)
+                .listener(completionPolicy)
+                .build();
+    }
+
+    private static WritableResource intermediateReport(boolean binary) {
+        return new FileSystemResource("report" + extension(binary));
+    }
+
+    private static String extension(boolean binary) {
+        return binary ? ".bin" : ".xml";
+    }
+
+    private static ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> aggregatedReader(String name,
+                                                                                                       Unmarshaller unmarshaller,
+                                                                                                       boolean streaming,
+                                                                                                       boolean binary) {
+        return binary ? new DailyTemperatureBinaryItemReader(name) : xmlReader(name, unmarshaller, streaming);
+    }
+
+    private static ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> xmlReader(String name,
+                                                                                                Unmarshaller unmarshaller,
+                                                                                                boolean streaming) {
+        if (streaming) {
+            return new DailyTemperatureXmlItemReader(name);
+        }
         return new StaxEventItemReaderBuilder<DailySensorAggregatedTemperatures>()
-                .name("aggregated_temperatures_xml_reader")
-                .resource(origin)
-                .unmarshaller(marshaller)
+                .name(name)
+                .unmarshaller(unmarshaller)
                 .addFragmentRootElements("measure")
                 .build();
     }
@@ -158,18 +519,27 @@ public class TemperatureSensorJobConfiguration {
             final BigDecimal averageBaseLine = BigDecimal.valueOf(-50L, 0);
             final var average = item.getAvg().add(averageBaseLine);
             final boolean avgExceeded = average.doubleValue() > 0.0;
-            return avgExceeded ? new AbnormalTemperatureAlert(item.getDate(), average.toEngineeringString()) : null;
+            return avgExceeded ? new AbnormalTemperatureAlert(item.getDate(), average.toEngineeringString(), item.getSensor()) : null;
         };
     }
 
     @Bean
-    public ItemWriter<AbnormalTemperatureAlert> abnormalTemperatureCsvWriter(@Value("file:alert.csv") WritableResource resource) {
+    @StepScope
+    public EwmaAnomalyDetector ewmaAnomalyDetector(@Value("${sensors.anomaly.ewma.alpha:0.1}") double alpha,
+                                                   @Value("${sensors.anomaly.ewma.z-threshold:3.0}") double zThreshold,
+                                                   @Value("${sensors.anomaly.ewma.warm-up:7}") long warmUp) {
+        return new EwmaAnomalyDetector(alpha, zThreshold, warmUp);
+    }
+
+    @Bean
+    public ItemWriter<AbnormalTemperatureAlert> abnormalTemperatureCsvWriter(@Value("file:alert.csv") WritableResource resource,
+                                                                             @Value("${sensors.files.enabled:false}") boolean multiFile) {
         return new FlatFileItemWriterBuilder<AbnormalTemperatureAlert>()
                 .name("abnormal_temperatures_csv_writer")
                 .resource(resource)
                 .delimited()
                 .delimiter(",")
-                .names("date", "averageExceeded")
+                .names(multiFile ? new String[]{"sensor", "date", "averageExceeded"} : new String[]{"date", "averageExceeded"})
                 .build();
     }
 }
@@ -2,6 +2,11 @@ package com.example.batch_jobs.sensors.domain;
 
 public record AbnormalTemperatureAlert(
         String date,
-        String averageExceeded
+        String averageExceeded,
+        String sensor
 ) {
+
+    public AbnormalTemperatureAlert(String date, String averageExceeded) {
+        this(date, averageExceeded, null);
+    }
 }
@@ -3,10 +3,14 @@ package com.example.batch_jobs.sensors.domain;
 import java.math.BigDecimal;
 
 public class DailySensorAggregatedTemperatures {
+    private String sensor;
     private String date;
     private BigDecimal min;
     private BigDecimal avg;
     private BigDecimal max;
+    private BigDecimal stdDev;
+    private BigDecimal median;
+    private BigDecimal p95;
 
     public DailySensorAggregatedTemperatures(String date, BigDecimal min, BigDecimal avg, BigDecimal max) {
         this.date = date;
@@ -15,6 +19,14 @@ public class DailySensorAggregatedTemperatures {
         this.max = max;
     }
 
+    public String getSensor() {
+        return sensor;
+    }
+
+    public void setSensor(String sensor) {
+        this.sensor = sensor;
+    }
+
     public String getDate() {
         return date;
     }
@@ -46,4 +58,28 @@ public class DailySensorAggregatedTemperatures {
     public void setMax(BigDecimal max) {
         this.max = max;
     }
+
+    public BigDecimal getStdDev() {
+        return stdDev;
+    }
+
+    public void setStdDev(BigDecimal stdDev) {
+        this.stdDev = stdDev;
+    }
+
+    public BigDecimal getMedian() {
+        return median;
+    }
+
+    public void setMedian(BigDecimal median) {
+        this.median = median;
+    }
+
+    public BigDecimal getP95() {
+        return p95;
+    }
+
+    public void setP95(BigDecimal p95) {
+        this.p95 = p95;
+    }
 }
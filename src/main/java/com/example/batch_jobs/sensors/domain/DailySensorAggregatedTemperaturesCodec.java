@@ -0,0 +1,84 @@
+package com.example.batch_jobs.sensors.domain;
+
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Compact binary form of {@link DailySensorAggregatedTemperatures}: a presence bitmask, the day as epoch day and
+ * every temperature as unscaled long plus scale, so values round-trip exactly, e.g. {@code 44} stays {@code 44}
+ * and does not become {@code 44.00}.
+ */
+public final class DailySensorAggregatedTemperaturesCodec {
+
+    private static final int SENSOR = 1;
+    private static final int STD_DEV = 1 << 1;
+    private static final int MEDIAN = 1 << 2;
+    private static final int P95 = 1 << 3;
+
+    private DailySensorAggregatedTemperaturesCodec() {
+    }
+
+    public static void write(DataOutput output, DailySensorAggregatedTemperatures item) throws IOException {
+        final int flags = (item.getSensor() != null ? SENSOR : 0)
+                | (item.getStdDev() != null ? STD_DEV : 0)
+                | (item.getMedian() != null ? MEDIAN : 0)
+                | (item.getP95() != null ? P95 : 0);
+        output.writeByte(flags);
+        output.writeInt(Math.toIntExact(LocalDate.parse(item.getDate(), DateTimeFormatter.ISO_ORDINAL_DATE).toEpochDay()));
+        writeDecimal(output, item.getMin());
+        writeDecimal(output, item.getAvg());
+        writeDecimal(output, item.getMax());
+        if ((flags & STD_DEV) != 0) {
+            writeDecimal(output, item.getStdDev());
+        }
+        if ((flags & MEDIAN) != 0) {
+            writeDecimal(output, item.getMedian());
+        }
+        if ((flags & P95) != 0) {
+            writeDecimal(output, item.getP95());
+        }
+        if ((flags & SENSOR) != 0) {
+            output.writeUTF(item.getSensor());
+        }
+    }
+
+    /**
+     * Returns {@code null} at the end of the stream.
+     */
+    public static DailySensorAggregatedTemperatures read(DataInputStream input) throws IOException {
+        final int flags = input.read();
+        if (flags < 0) {
+            return null;
+        }
+        final String date = DateTimeFormatter.ISO_ORDINAL_DATE.format(LocalDate.ofEpochDay(input.readInt()));
+        final DailySensorAggregatedTemperatures item =
+                new DailySensorAggregatedTemperatures(date, readDecimal(input), readDecimal(input), readDecimal(input));
+        if ((flags & STD_DEV) != 0) {
+            item.setStdDev(readDecimal(input));
+        }
+        if ((flags & MEDIAN) != 0) {
+            item.setMedian(readDecimal(input));
+        }
+        if ((flags & P95) != 0) {
+            item.setP95(readDecimal(input));
+        }
+        if ((flags & SENSOR) != 0) {
+            item.setSensor(input.readUTF());
+        }
+        return item;
+    }
+
+    private static void writeDecimal(DataOutput output, BigDecimal value) throws IOException {
+        output.writeLong(value.unscaledValue().longValueExact());
+        output.writeByte(value.scale());
+    }
+
+    private static BigDecimal readDecimal(DataInputStream input) throws IOException {
+        final long unscaled = input.readLong();
+        return BigDecimal.valueOf(unscaled, input.readByte());
+    }
+}
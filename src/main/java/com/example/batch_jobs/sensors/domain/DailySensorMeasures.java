@@ -0,0 +1,10 @@
+package com.example.batch_jobs.sensors.domain;
+
+import java.time.LocalDate;
+
+public sealed interface DailySensorMeasures permits DailySensorTemperatures, DailySensorScaledTemperatures {
+
+    LocalDate date();
+
+    String sensor();
+}
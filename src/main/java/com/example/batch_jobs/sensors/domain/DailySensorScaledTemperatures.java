@@ -0,0 +1,19 @@
+package com.example.batch_jobs.sensors.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Daily readings kept as hundredths of a degree, e.g. {@code 50.51} is stored as {@code 5051}.
+ */
+public record DailySensorScaledTemperatures(
+        LocalDate date,
+        long[] temperatures,
+        String sensor
+) implements DailySensorMeasures {
+
+    public static final int SCALE = 2;
+
+    public DailySensorScaledTemperatures(LocalDate date, long[] temperatures) {
+        this(date, temperatures, null);
+    }
+}
@@ -6,6 +6,11 @@ import java.util.List;
 
 public record DailySensorTemperatures(
         LocalDate date,
-        List<BigDecimal> temperatures
-) {
+        List<BigDecimal> temperatures,
+        String sensor
+) implements DailySensorMeasures {
+
+    public DailySensorTemperatures(LocalDate date, List<BigDecimal> temperatures) {
+        this(date, temperatures, null);
+    }
 }
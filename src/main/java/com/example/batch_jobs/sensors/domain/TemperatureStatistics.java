@@ -0,0 +1,139 @@
+package com.example.batch_jobs.sensors.domain;
+
+import com.example.batch_jobs.domain.LongQuantileSketch;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * One-pass accumulator over readings in hundredths of a degree. Variance (Welford) and the quantile sketch
+ * are only maintained when enabled; two accumulators can be merged, e.g. across partitions.
+ */
+public class TemperatureStatistics implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int SCALE = DailySensorScaledTemperatures.SCALE;
+    private static final MathContext AVERAGE_CONTEXT = new MathContext(2);
+    private static final int SKETCH_EXACT_CAPACITY = 4096;
+    private static final long SKETCH_BUCKET_WIDTH = 10L;
+
+    private final boolean variance;
+    private final LongQuantileSketch sketch;
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double mean;
+    private double squaredDeviations;
+
+    public TemperatureStatistics(boolean variance, boolean percentiles) {
+        this.variance = variance;
+        this.sketch = percentiles ? new LongQuantileSketch(SKETCH_EXACT_CAPACITY, SKETCH_BUCKET_WIDTH) : null;
+    }
+
+    public void accept(long temperature) {
+        count++;
+        sum += temperature;
+        min = Math.min(min, temperature);
+        max = Math.max(max, temperature);
+        if (variance) {
+            final double delta = temperature - mean;
+            mean += delta / count;
+            squaredDeviations += delta * (temperature - mean);
+        }
+        if (sketch != null) {
+            sketch.accept(temperature);
+        }
+    }
+
+    public void accept(long[] temperatures) {
+        for (long temperature : temperatures) {
+            accept(temperature);
+        }
+    }
+
+    /**
+     * Accepts a reading of any scale, rounded half up to hundredths.
+     */
+    public void accept(BigDecimal temperature) {
+        accept(temperature.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public void merge(TemperatureStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        final long total = count + other.count;
+        if (variance && other.variance) {
+            final double delta = other.mean - mean;
+            squaredDeviations += other.squaredDeviations + delta * delta * count * other.count / total;
+            mean += delta * other.count / total;
+        }
+        if (sketch != null && other.sketch != null) {
+            sketch.merge(other.sketch);
+        }
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        mean = 0.0;
+        squaredDeviations = 0.0;
+        if (sketch != null) {
+            sketch.reset();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getMin() {
+        return count == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(min, SCALE);
+    }
+
+    public BigDecimal getMax() {
+        return count == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(max, SCALE);
+    }
+
+    public BigDecimal getAvg() {
+        return BigDecimal.valueOf(sum, SCALE).divide(BigDecimal.valueOf(count), AVERAGE_CONTEXT);
+    }
+
+    public BigDecimal getStdDev() {
+        if (!variance || count == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(Math.sqrt(squaredDeviations / count))
+                .movePointLeft(SCALE)
+                .setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getPercentile(double quantile) {
+        if (sketch == null || count == 0) {
+            return null;
+        }
+        final long value = Math.clamp(sketch.quantile(quantile, count), min, max);
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    public DailySensorAggregatedTemperatures toAggregatedTemperatures(String date) {
+        final DailySensorAggregatedTemperatures aggregated = new DailySensorAggregatedTemperatures(date, getMin(), getAvg(), getMax());
+        aggregated.setStdDev(getStdDev());
+        aggregated.setMedian(getPercentile(0.5));
+        aggregated.setP95(getPercentile(0.95));
+        return aggregated;
+    }
+}
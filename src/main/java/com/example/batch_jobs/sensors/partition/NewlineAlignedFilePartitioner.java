@@ -0,0 +1,117 @@
+package com.example.batch_jobs.sensors.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Splits a line-oriented file into byte ranges that start right after a line feed,
+ * so every partition can be memory-mapped and decoded independently.
+ */
+public class NewlineAlignedFilePartitioner implements Partitioner {
+
+    public static final String FILE_KEY = "sensorFile";
+    public static final String START_OFFSET_KEY = "startOffset";
+    public static final String END_OFFSET_KEY = "endOffset";
+    public static final String PARTITION_INDEX_KEY = "partitionIndex";
+    public static final String PARTITION_FILE_KEY = "partitionFile";
+
+    /**
+     * Orders partition files by their numeric index, since the zero padding of the names runs out past 9999.
+     */
+    public static final Comparator<Resource> PARTITION_FILE_ORDER =
+            Comparator.comparingInt(NewlineAlignedFilePartitioner::partitionFileIndex);
+
+    private static final String PARTITION_FILE_PREFIX = "report-";
+    private static final long MAX_RANGE_SIZE = 1L << 30;
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final Resource resource;
+
+    public NewlineAlignedFilePartitioner(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        final Path file = resolveFile();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final long rangeSize = Math.min(MAX_RANGE_SIZE, Math.max(1L, Math.ceilDiv(size, Math.max(gridSize, 1))));
+            final Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+            long start = 0L;
+            do {
+                final long end = start + rangeSize >= size ? size : nextLineStart(channel, start + rangeSize, size);
+                final int index = partitions.size();
+                final ExecutionContext context = new ExecutionContext();
+                context.putString(FILE_KEY, file.toString());
+                context.putLong(START_OFFSET_KEY, start);
+                context.putLong(END_OFFSET_KEY, end);
+                context.putInt(PARTITION_INDEX_KEY, index);
+                context.putString(PARTITION_FILE_KEY, partitionFile(index));
+                partitions.put(partitionName(index), context);
+                start = end;
+            } while (start < size);
+            return partitions;
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to partition " + file, e);
+        }
+    }
+
+    public static String partitionName(int index) {
+        return "partition-%04d".formatted(index);
+    }
+
+    public static String partitionFile(int index) {
+        return PARTITION_FILE_PREFIX + "%04d".formatted(index);
+    }
+
+    private static int partitionFileIndex(Resource resource) {
+        final String name = Objects.requireNonNull(resource.getFilename());
+        final int extension = name.indexOf('.', PARTITION_FILE_PREFIX.length());
+        return Integer.parseInt(name, PARTITION_FILE_PREFIX.length(), extension < 0 ? name.length() : extension, 10);
+    }
+
+    private Path resolveFile() {
+        if (!resource.isFile()) {
+            throw new IllegalStateException("Memory-mapped partitioning requires a file system resource, got " + resource);
+        }
+        try {
+            return resource.getFile().toPath();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to resolve " + resource, e);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from - 1;
+        while (position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.batch_jobs.sensors.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Assigns the sensor files matching a location pattern to partitions, either one file per partition or
+ * {@code groups} partitions balanced by total file size (largest file first onto the lightest group).
+ * Each partition lists its files under {@code sensorFile.<n>} keys, so its reader can restart file by file.
+ */
+public class SensorFileGroupPartitioner implements Partitioner {
+
+    public static final String FILE_COUNT_KEY = "sensorFileCount";
+    public static final String FILE_KEY_PREFIX = "sensorFile.";
+
+    private final ResourcePatternResolver resolver;
+    private final String locationPattern;
+    private final int groups;
+
+    public SensorFileGroupPartitioner(ResourcePatternResolver resolver, String locationPattern, int groups) {
+        this.resolver = resolver;
+        this.locationPattern = locationPattern;
+        this.groups = groups;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        final List<SensorFile> files = resolveFiles();
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No sensor files match " + locationPattern);
+        }
+        final Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (List<SensorFile> group : groups > 0 ? balance(files, Math.min(groups, files.size())) : singletons(files)) {
+            final int index = partitions.size();
+            final ExecutionContext context = new ExecutionContext();
+            context.putInt(FILE_COUNT_KEY, group.size());
+            for (int i = 0; i < group.size(); i++) {
+                context.putString(FILE_KEY_PREFIX + i, group.get(i).path().toString());
+            }
+            context.putInt(NewlineAlignedFilePartitioner.PARTITION_INDEX_KEY, index);
+            context.putString(NewlineAlignedFilePartitioner.PARTITION_FILE_KEY, NewlineAlignedFilePartitioner.partitionFile(index));
+            partitions.put(NewlineAlignedFilePartitioner.partitionName(index), context);
+        }
+        return partitions;
+    }
+
+    public static List<Path> sensorFiles(ExecutionContext context) {
+        final int count = context.getInt(FILE_COUNT_KEY);
+        final List<Path> files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            files.add(Path.of(context.getString(FILE_KEY_PREFIX + i)));
+        }
+        return files;
+    }
+
+    private List<SensorFile> resolveFiles() {
+        try {
+            final List<SensorFile> files = new ArrayList<>();
+            for (Resource resource : resolver.getResources(locationPattern)) {
+                if (resource.isFile() && resource.isReadable()) {
+                    files.add(new SensorFile(resource.getFile().toPath(), resource.contentLength()));
+                }
+            }
+            files.sort(Comparator.comparing(SensorFile::path));
+            return files;
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to list sensor files " + locationPattern, e);
+        }
+    }
+
+    private static List<List<SensorFile>> singletons(List<SensorFile> files) {
+        return files.stream().map(List::of).toList();
+    }
+
+    private static List<List<SensorFile>> balance(List<SensorFile> files, int groupCount) {
+        final SensorFile[] bySize = files.toArray(SensorFile[]::new);
+        Arrays.sort(bySize, Comparator.comparingLong(SensorFile::size).reversed());
+        final PriorityQueue<FileGroup> lightest = new PriorityQueue<>(Comparator.comparingLong(FileGroup::size).thenComparingInt(FileGroup::index));
+        final List<FileGroup> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            final FileGroup group = new FileGroup(i);
+            groups.add(group);
+            lightest.add(group);
+        }
+        for (SensorFile file : bySize) {
+            final FileGroup group = lightest.poll();
+            group.add(file);
+            lightest.add(group);
+        }
+        return groups.stream()
+                .map(group -> group.files.stream().sorted(Comparator.comparing(SensorFile::path)).toList())
+                .toList();
+    }
+
+    private record SensorFile(Path path, long size) {
+    }
+
+    private static final class FileGroup {
+
+        private final int index;
+        private final List<SensorFile> files = new ArrayList<>();
+        private long size;
+
+        private FileGroup(int index) {
+            this.index = index;
+        }
+
+        private void add(SensorFile file) {
+            files.add(file);
+            size += file.size();
+        }
+
+        private int index() {
+            return index;
+        }
+
+        private long size() {
+            return size;
+        }
+    }
+}
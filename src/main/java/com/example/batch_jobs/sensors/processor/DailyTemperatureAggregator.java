@@ -0,0 +1,37 @@
+package com.example.batch_jobs.sensors.processor;
+
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import com.example.batch_jobs.sensors.domain.DailySensorMeasures;
+import com.example.batch_jobs.sensors.domain.DailySensorScaledTemperatures;
+import com.example.batch_jobs.sensors.domain.DailySensorTemperatures;
+import com.example.batch_jobs.sensors.domain.TemperatureStatistics;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+
+public class DailyTemperatureAggregator implements ItemProcessor<DailySensorMeasures, DailySensorAggregatedTemperatures> {
+
+    private final TemperatureStatistics daily;
+
+    public DailyTemperatureAggregator(boolean variance, boolean percentiles) {
+        this.daily = new TemperatureStatistics(variance, percentiles);
+    }
+
+    @Override
+    public DailySensorAggregatedTemperatures process(@NonNull DailySensorMeasures item) {
+        daily.reset();
+        switch (item) {
+            case DailySensorTemperatures temperatures -> {
+                for (BigDecimal temperature : temperatures.temperatures()) {
+                    daily.accept(temperature);
+                }
+            }
+            case DailySensorScaledTemperatures temperatures -> daily.accept(temperatures.temperatures());
+        }
+        final DailySensorAggregatedTemperatures aggregated = daily.toAggregatedTemperatures(DateTimeFormatter.ISO_ORDINAL_DATE.format(item.date()));
+        aggregated.setSensor(item.sensor());
+        return aggregated;
+    }
+}
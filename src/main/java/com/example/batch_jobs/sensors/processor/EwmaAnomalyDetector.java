@@ -0,0 +1,86 @@
+package com.example.batch_jobs.sensors.processor;
+
+import com.example.batch_jobs.sensors.domain.AbnormalTemperatureAlert;
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.lang.NonNull;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+
+/**
+ * Flags days whose average deviates from an exponentially weighted moving average by more than
+ * {@code zThreshold} standard deviations. Only the moving mean, variance and count of each sensor are kept, and
+ * they are saved in the step ExecutionContext on every update so a restart continues with the same baselines.
+ */
+public class EwmaAnomalyDetector implements ItemProcessor<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert>, ItemStream {
+
+    private static final String BASELINES_KEY = "ewma_anomaly_detector.baselines";
+
+    private final double alpha;
+    private final double zThreshold;
+    private final long warmUp;
+
+    private HashMap<String, Baseline> baselines = new HashMap<>();
+
+    public EwmaAnomalyDetector(double alpha, double zThreshold, long warmUp) {
+        if (alpha <= 0.0 || alpha > 1.0) {
+            throw new IllegalArgumentException("EWMA smoothing factor must be in (0, 1], got " + alpha);
+        }
+        this.alpha = alpha;
+        this.zThreshold = zThreshold;
+        this.warmUp = warmUp;
+    }
+
+    @Override
+    public AbnormalTemperatureAlert process(@NonNull DailySensorAggregatedTemperatures item) {
+        final Baseline baseline = baselines.computeIfAbsent(String.valueOf(item.getSensor()), sensor -> new Baseline());
+        final double average = item.getAvg().doubleValue();
+        final double deviation = average - baseline.mean;
+        final boolean abnormal = baseline.count >= warmUp
+                && baseline.variance > 0.0
+                && Math.abs(deviation) > zThreshold * Math.sqrt(baseline.variance);
+        if (baseline.count == 0) {
+            baseline.mean = average;
+        } else {
+            final double increment = alpha * deviation;
+            baseline.mean += increment;
+            baseline.variance = (1.0 - alpha) * (baseline.variance + deviation * increment);
+        }
+        baseline.count++;
+        if (!abnormal) {
+            return null;
+        }
+        final BigDecimal exceeded = BigDecimal.valueOf(deviation).setScale(2, RoundingMode.HALF_UP);
+        return new AbnormalTemperatureAlert(item.getDate(), exceeded.toEngineeringString(), item.getSensor());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        baselines = executionContext.containsKey(BASELINES_KEY)
+                ? (HashMap<String, Baseline>) executionContext.get(BASELINES_KEY)
+                : new HashMap<>();
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.put(BASELINES_KEY, baselines);
+    }
+
+    private static final class Baseline implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private long count;
+        private double mean;
+        private double variance;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.batch_jobs.sensors.reader;
+
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperaturesCodec;
+import com.example.batch_jobs.sensors.writer.DailyTemperatureBinaryItemWriter;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Reads the records written by {@link DailyTemperatureBinaryItemWriter}.
+ */
+public class DailyTemperatureBinaryItemReader extends AbstractItemCountingItemStreamItemReader<DailySensorAggregatedTemperatures>
+        implements ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Resource resource;
+    private DataInputStream input;
+
+    public DailyTemperatureBinaryItemReader(String name) {
+        setName(name);
+    }
+
+    public DailyTemperatureBinaryItemReader(String name, Resource resource) {
+        this(name);
+        this.resource = resource;
+    }
+
+    @Override
+    public void setResource(@NonNull Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        input = new DataInputStream(new BufferedInputStream(resource.getInputStream(), BUFFER_SIZE));
+        if (input.readInt() != DailyTemperatureBinaryItemWriter.MAGIC || input.readByte() != DailyTemperatureBinaryItemWriter.VERSION) {
+            throw new ItemStreamException("Not a binary temperature file: " + resource);
+        }
+    }
+
+    @Override
+    protected DailySensorAggregatedTemperatures doRead() throws IOException {
+        return DailySensorAggregatedTemperaturesCodec.read(input);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.batch_jobs.sensors.reader;
+
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+/**
+ * Reads {@code measure} elements with a StAX cursor, mapping child elements by name instead of through a marshaller.
+ */
+public class DailyTemperatureXmlItemReader extends AbstractItemCountingItemStreamItemReader<DailySensorAggregatedTemperatures>
+        implements ResourceAwareItemReaderItemStream<DailySensorAggregatedTemperatures> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Resource resource;
+    private InputStream input;
+    private XMLStreamReader reader;
+
+    public DailyTemperatureXmlItemReader(String name) {
+        setName(name);
+    }
+
+    public DailyTemperatureXmlItemReader(String name, Resource resource) {
+        this(name);
+        this.resource = resource;
+    }
+
+    @Override
+    public void setResource(@NonNull Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        input = new BufferedInputStream(resource.getInputStream(), BUFFER_SIZE);
+        reader = createInputFactory().createXMLStreamReader(input);
+    }
+
+    @Override
+    protected DailySensorAggregatedTemperatures doRead() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && "measure".equals(reader.getLocalName())) {
+                return readMeasure();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } finally {
+            reader = null;
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+
+    private DailySensorAggregatedTemperatures readMeasure() throws XMLStreamException {
+        final DailySensorAggregatedTemperatures measure = new DailySensorAggregatedTemperatures(null, null, null, null);
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            final String element = reader.getLocalName();
+            final String text = reader.getElementText();
+            switch (element) {
+                case "sensor" -> measure.setSensor(text);
+                case "date" -> measure.setDate(text);
+                case "min" -> measure.setMin(new BigDecimal(text));
+                case "avg" -> measure.setAvg(new BigDecimal(text));
+                case "max" -> measure.setMax(new BigDecimal(text));
+                case "stdDev" -> measure.setStdDev(new BigDecimal(text));
+                case "median" -> measure.setMedian(new BigDecimal(text));
+                case "p95" -> measure.setP95(new BigDecimal(text));
+                default -> {
+                }
+            }
+        }
+        return measure;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
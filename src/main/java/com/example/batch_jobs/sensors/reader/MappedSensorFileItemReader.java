@@ -0,0 +1,123 @@
+package com.example.batch_jobs.sensors.reader;
+
+import com.example.batch_jobs.sensors.domain.DailySensorScaledTemperatures;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the {@code [startOffset, endOffset)} byte range of a sensor file through a memory mapping.
+ * The absolute byte offset of the next unread line is saved on every update, so a restart resumes from it.
+ */
+public class MappedSensorFileItemReader implements ItemStreamReader<DailySensorScaledTemperatures> {
+
+    private final String name;
+    private final Path file;
+    private final long startOffset;
+    private final long endOffset;
+    private final ScaledTemperatureLineMapper lineMapper = new ScaledTemperatureLineMapper();
+    private final MappedLine line = new MappedLine();
+
+    private MappedByteBuffer buffer;
+    private int position;
+
+    public MappedSensorFileItemReader(String name, Path file, long startOffset, long endOffset) {
+        this.name = name;
+        this.file = file;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        final long offset = executionContext.getLong(offsetKey(), startOffset);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, startOffset, endOffset - startOffset);
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to map %s [%d, %d)".formatted(file, startOffset, endOffset), e);
+        }
+        position = Math.toIntExact(offset - startOffset);
+    }
+
+    @Override
+    public DailySensorScaledTemperatures read() {
+        final int limit = buffer.limit();
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            final int lineStart = position;
+            position = Math.min(lineEnd + 1, limit);
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (contentEnd > lineStart) {
+                return lineMapper.parse(line.wrap(buffer, lineStart, contentEnd - lineStart));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(offsetKey(), startOffset + position);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        buffer = null;
+    }
+
+    private String offsetKey() {
+        return name + ".offset";
+    }
+
+    private static final class MappedLine implements CharSequence {
+
+        private MappedByteBuffer buffer;
+        private int offset;
+        private int length;
+
+        private MappedLine wrap(MappedByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        @NonNull
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+    }
+}
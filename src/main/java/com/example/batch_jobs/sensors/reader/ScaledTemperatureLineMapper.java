@@ -0,0 +1,116 @@
+package com.example.batch_jobs.sensors.reader;
+
+import com.example.batch_jobs.sensors.domain.DailySensorScaledTemperatures;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Parses {@code yyyy-MM-dd:dd.dd,dd.dd,...} lines in a single pass, without splitting the line
+ * or allocating a number object per reading. Not thread-safe: the readings buffer is reused between lines.
+ */
+public class ScaledTemperatureLineMapper implements LineMapper<DailySensorScaledTemperatures> {
+
+    private static final int ISO_DATE_LENGTH = 10;
+
+    private long[] buffer = new long[16];
+    private String sensor;
+
+    public void setSensor(String sensor) {
+        this.sensor = sensor;
+    }
+
+    @Override
+    @NonNull
+    public DailySensorScaledTemperatures mapLine(@NonNull String line, int lineNumber) {
+        return parse(line);
+    }
+
+    public DailySensorScaledTemperatures parse(CharSequence line) {
+        final int separator = indexOf(line, ':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Missing date separator in sensor line: " + line);
+        }
+        final LocalDate date = parseDate(line, separator);
+        int count = 0;
+        long value = 0;
+        int fractionDigits = -1;
+        boolean negative = false;
+        boolean hasDigits = false;
+        final int end = trimmedEnd(line);
+        for (int i = separator + 1; i <= end; i++) {
+            final char c = i == end ? ',' : line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits == DailySensorScaledTemperatures.SCALE) {
+                    throw new NumberFormatException("More than two decimals in reading at position " + i + ": " + line);
+                }
+                value = value * 10 + (c - '0');
+                hasDigits = true;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c == '-' && !hasDigits && !negative) {
+                negative = true;
+            } else if (c == ',') {
+                if (!hasDigits) {
+                    throw new NumberFormatException("Empty reading at position " + i + ": " + line);
+                }
+                for (int scale = Math.max(fractionDigits, 0); scale < DailySensorScaledTemperatures.SCALE; scale++) {
+                    value *= 10;
+                }
+                if (count == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, count << 1);
+                }
+                buffer[count++] = negative ? -value : value;
+                value = 0;
+                fractionDigits = -1;
+                negative = false;
+                hasDigits = false;
+            } else {
+                throw new NumberFormatException("Unexpected character '" + c + "' at position " + i + ": " + line);
+            }
+        }
+        return new DailySensorScaledTemperatures(date, Arrays.copyOf(buffer, count), sensor);
+    }
+
+    private static LocalDate parseDate(CharSequence line, int separator) {
+        final boolean isIsoDate = separator == ISO_DATE_LENGTH && line.charAt(4) == '-' && line.charAt(7) == '-';
+        if (!isIsoDate) {
+            return LocalDate.parse(line.subSequence(0, separator));
+        }
+        return LocalDate.of(digits(line, 0, 4), digits(line, 5, 7), digits(line, 8, 10));
+    }
+
+    private static int digits(CharSequence line, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            final int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Unexpected character in date at position " + i + ": " + line);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static int indexOf(CharSequence line, char c) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int trimmedEnd(CharSequence line) {
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
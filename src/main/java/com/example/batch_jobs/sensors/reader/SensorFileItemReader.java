@@ -0,0 +1,31 @@
+package com.example.batch_jobs.sensors.reader;
+
+import com.example.batch_jobs.sensors.domain.DailySensorScaledTemperatures;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reads one sensor file at a time, tagging every line with the sensor named after the file, e.g. {@code s-042.txt}
+ * yields sensor {@code s-042}. Meant as the delegate of a {@code MultiResourceItemReader}.
+ */
+public class SensorFileItemReader extends FlatFileItemReader<DailySensorScaledTemperatures> {
+
+    private final ScaledTemperatureLineMapper lineMapper = new ScaledTemperatureLineMapper();
+
+    public SensorFileItemReader(String name) {
+        setName(name);
+        setLineMapper(lineMapper);
+    }
+
+    @Override
+    public void setResource(@NonNull Resource resource) {
+        super.setResource(resource);
+        lineMapper.setSensor(sensorName(resource));
+    }
+
+    public static String sensorName(Resource resource) {
+        return StringUtils.stripFilenameExtension(String.valueOf(resource.getFilename()));
+    }
+}
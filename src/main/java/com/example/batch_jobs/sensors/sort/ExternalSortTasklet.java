@@ -0,0 +1,248 @@
+package com.example.batch_jobs.sensors.sort;
+
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperaturesCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.lang.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * External merge sort: the reader is consumed in runs of {@code runSize} items, each run is sorted in memory
+ * and spilled to a binary temp file, then the runs are k-way merged, at most {@code mergeFanIn} at a time.
+ * The sorted items go to a writer over {@code sortedFile}, which then atomically replaces {@code target}, so the
+ * step can simply be run again after a failure. Equal items keep their input order.
+ */
+public class ExternalSortTasklet implements Tasklet {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final ItemStreamReader<DailySensorAggregatedTemperatures> reader;
+    private final ItemStreamWriter<DailySensorAggregatedTemperatures> writer;
+    private final Path sortedFile;
+    private final Path target;
+    private final Comparator<DailySensorAggregatedTemperatures> comparator;
+    private final int runSize;
+    private final int mergeFanIn;
+    private final Path tempDirectory;
+
+    public ExternalSortTasklet(ItemStreamReader<DailySensorAggregatedTemperatures> reader,
+                               ItemStreamWriter<DailySensorAggregatedTemperatures> writer,
+                               Path sortedFile,
+                               Path target,
+                               Comparator<DailySensorAggregatedTemperatures> comparator,
+                               int runSize,
+                               int mergeFanIn,
+                               Path tempDirectory) {
+        if (runSize < 1 || mergeFanIn < 2) {
+            throw new IllegalArgumentException("Invalid run size %d or merge fan-in %d".formatted(runSize, mergeFanIn));
+        }
+        this.reader = reader;
+        this.writer = writer;
+        this.sortedFile = sortedFile;
+        this.target = target;
+        this.comparator = comparator;
+        this.runSize = runSize;
+        this.mergeFanIn = mergeFanIn;
+        this.tempDirectory = tempDirectory;
+    }
+
+    @Override
+    public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+        Files.createDirectories(tempDirectory);
+        List<Path> runs = new ArrayList<>();
+        try {
+            spillRuns(runs, contribution);
+            log.info("Spilled {} sorted runs of at most {} items", runs.size(), runSize);
+            while (runs.size() > mergeFanIn) {
+                runs = mergePass(runs);
+            }
+            writeSorted(runs, contribution);
+            Files.move(sortedFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    private void spillRuns(List<Path> runs, StepContribution contribution) throws Exception {
+        final List<DailySensorAggregatedTemperatures> run = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            DailySensorAggregatedTemperatures item;
+            while ((item = reader.read()) != null) {
+                contribution.incrementReadCount();
+                run.add(item);
+                if (run.size() == runSize) {
+                    runs.add(spill(run));
+                }
+            }
+            if (!run.isEmpty()) {
+                runs.add(spill(run));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Path spill(List<DailySensorAggregatedTemperatures> run) throws IOException {
+        run.sort(comparator);
+        final Path file = Files.createTempFile(tempDirectory, "sensor-run-", ".bin");
+        try (DataOutputStream output = openRun(file)) {
+            for (DailySensorAggregatedTemperatures item : run) {
+                DailySensorAggregatedTemperaturesCodec.write(output, item);
+            }
+        }
+        run.clear();
+        return file;
+    }
+
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        final List<Path> merged = new ArrayList<>(Math.ceilDiv(runs.size(), mergeFanIn));
+        try {
+            for (int from = 0; from < runs.size(); from += mergeFanIn) {
+                final List<Path> group = runs.subList(from, Math.min(from + mergeFanIn, runs.size()));
+                final Path file = Files.createTempFile(tempDirectory, "sensor-run-", ".bin");
+                merged.add(file);
+                try (RunMerger merger = new RunMerger(group); DataOutputStream output = openRun(file)) {
+                    DailySensorAggregatedTemperatures item;
+                    while ((item = merger.next()) != null) {
+                        DailySensorAggregatedTemperaturesCodec.write(output, item);
+                    }
+                }
+                for (Path run : group) {
+                    Files.delete(run);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Path run : merged) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        return merged;
+    }
+
+    private void writeSorted(List<Path> runs, StepContribution contribution) throws Exception {
+        final Chunk<DailySensorAggregatedTemperatures> chunk = new Chunk<>();
+        writer.open(new ExecutionContext());
+        try (RunMerger merger = new RunMerger(runs)) {
+            DailySensorAggregatedTemperatures item;
+            while ((item = merger.next()) != null) {
+                chunk.add(item);
+                if (chunk.size() == WRITE_CHUNK_SIZE) {
+                    write(chunk, contribution);
+                }
+            }
+            write(chunk, contribution);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void write(Chunk<DailySensorAggregatedTemperatures> chunk, StepContribution contribution) throws Exception {
+        writer.write(chunk);
+        contribution.incrementWriteCount(chunk.size());
+        chunk.clear();
+    }
+
+    private static DataOutputStream openRun(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+    }
+
+    private final class RunMerger implements Closeable {
+
+        private final List<RunCursor> cursors = new ArrayList<>();
+        private final PriorityQueue<RunCursor> heads = new PriorityQueue<>(
+                Comparator.<RunCursor, DailySensorAggregatedTemperatures>comparing(cursor -> cursor.head, comparator)
+                        .thenComparingInt(cursor -> cursor.index));
+
+        private RunMerger(List<Path> runs) throws IOException {
+            try {
+                for (Path run : runs) {
+                    final RunCursor cursor = new RunCursor(cursors.size(), run);
+                    cursors.add(cursor);
+                    if (cursor.advance()) {
+                        heads.add(cursor);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private DailySensorAggregatedTemperatures next() throws IOException {
+            final RunCursor cursor = heads.poll();
+            if (cursor == null) {
+                return null;
+            }
+            final DailySensorAggregatedTemperatures item = cursor.head;
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+            return item;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (RunCursor cursor : cursors) {
+                try {
+                    cursor.input.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static final class RunCursor {
+
+        private final int index;
+        private final DataInputStream input;
+        private DailySensorAggregatedTemperatures head;
+
+        private RunCursor(int index, Path run) throws IOException {
+            this.index = index;
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), BUFFER_SIZE));
+        }
+
+        private boolean advance() throws IOException {
+            head = DailySensorAggregatedTemperaturesCodec.read(input);
+            return head != null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.batch_jobs.sensors.writer;
+
+import com.example.batch_jobs.sensors.domain.AbnormalTemperatureAlert;
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.lang.NonNull;
+
+/**
+ * Runs the abnormal temperature analysis on aggregated records as they are written,
+ * so alerts can be produced in the same step that writes the XML report.
+ */
+public class AlertingItemWriter implements ItemStreamWriter<DailySensorAggregatedTemperatures> {
+
+    private final ItemProcessor<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert> analyser;
+    private final ItemWriter<AbnormalTemperatureAlert> delegate;
+
+    public AlertingItemWriter(ItemProcessor<DailySensorAggregatedTemperatures, AbnormalTemperatureAlert> analyser,
+                              ItemWriter<AbnormalTemperatureAlert> delegate) {
+        this.analyser = analyser;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends DailySensorAggregatedTemperatures> chunk) throws Exception {
+        final Chunk<AbnormalTemperatureAlert> alerts = new Chunk<>();
+        for (DailySensorAggregatedTemperatures item : chunk) {
+            final AbnormalTemperatureAlert alert = analyser.process(item);
+            if (alert != null) {
+                alerts.add(alert);
+            }
+        }
+        delegate.write(alerts);
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        if (analyser instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        if (analyser instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+        if (delegate instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (analyser instanceof ItemStream stream) {
+            stream.close();
+        }
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.batch_jobs.sensors.writer;
+
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperaturesCodec;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.lang.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes {@link DailySensorAggregatedTemperaturesCodec} records after a short header. The byte position is saved
+ * on every update and the file is truncated back to it on restart.
+ */
+public class DailyTemperatureBinaryItemWriter implements ItemStreamWriter<DailySensorAggregatedTemperatures> {
+
+    public static final int MAGIC = 0x534E5352;
+    public static final byte VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String name;
+    private final WritableResource resource;
+
+    private FileChannel channel;
+    private DataOutputStream output;
+
+    public DailyTemperatureBinaryItemWriter(String name, WritableResource resource) {
+        this.name = name;
+        this.resource = resource;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            final Path file = resource.getFile().toPath();
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            if (executionContext.containsKey(positionKey())) {
+                final long position = executionContext.getLong(positionKey());
+                channel.truncate(position);
+                channel.position(position);
+            } else {
+                channel.truncate(0L);
+                output.writeInt(MAGIC);
+                output.writeByte(VERSION);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to open " + resource, e);
+        }
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends DailySensorAggregatedTemperatures> chunk) throws IOException {
+        for (DailySensorAggregatedTemperatures item : chunk) {
+            DailySensorAggregatedTemperaturesCodec.write(output, item);
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            output.flush();
+            executionContext.putLong(positionKey(), channel.position());
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to flush " + resource, e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to close " + resource, e);
+        } finally {
+            output = null;
+            channel = null;
+        }
+    }
+
+    private String positionKey() {
+        return name + ".position";
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.batch_jobs.sensors.writer;
+
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.lang.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes {@code measure} elements straight to a buffered byte stream, producing the same document as
+ * {@code StaxEventItemWriter} with the XStream marshaller. The byte position is saved on every update
+ * and the file is truncated back to it on restart.
+ */
+public class DailyTemperatureXmlItemWriter implements ItemStreamWriter<DailySensorAggregatedTemperatures> {
+
+    private static final byte[] HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>".getBytes(StandardCharsets.UTF_8);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String name;
+    private final WritableResource resource;
+    private final String rootTagName;
+
+    private FileChannel channel;
+    private OutputStream output;
+
+    public DailyTemperatureXmlItemWriter(String name, WritableResource resource, String rootTagName) {
+        this.name = name;
+        this.resource = resource;
+        this.rootTagName = rootTagName;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            final Path file = resource.getFile().toPath();
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            output = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            if (executionContext.containsKey(positionKey())) {
+                final long position = executionContext.getLong(positionKey());
+                channel.truncate(position);
+                channel.position(position);
+            } else {
+                channel.truncate(0L);
+                output.write(HEADER);
+                writeStartTag(rootTagName);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to open " + resource, e);
+        }
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends DailySensorAggregatedTemperatures> chunk) throws IOException {
+        for (DailySensorAggregatedTemperatures item : chunk) {
+            writeStartTag("measure");
+            writeElement("sensor", item.getSensor());
+            writeElement("date", item.getDate());
+            writeElement("min", item.getMin());
+            writeElement("avg", item.getAvg());
+            writeElement("max", item.getMax());
+            writeElement("stdDev", item.getStdDev());
+            writeElement("median", item.getMedian());
+            writeElement("p95", item.getP95());
+            writeEndTag("measure");
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            output.flush();
+            executionContext.putLong(positionKey(), channel.position());
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to flush " + resource, e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (output == null) {
+            return;
+        }
+        try (OutputStream closing = output) {
+            writeEndTag(rootTagName);
+            closing.flush();
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to close " + resource, e);
+        } finally {
+            output = null;
+            channel = null;
+        }
+    }
+
+    private void writeElement(String element, BigDecimal value) throws IOException {
+        if (value != null) {
+            writeElement(element, value.toString());
+        }
+    }
+
+    private void writeElement(String element, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writeStartTag(element);
+        if (isPlainAscii(value)) {
+            writeAscii(value);
+        } else {
+            output.write(escape(value).getBytes(StandardCharsets.UTF_8));
+        }
+        writeEndTag(element);
+    }
+
+    private void writeStartTag(String element) throws IOException {
+        output.write('<');
+        writeAscii(element);
+        output.write('>');
+    }
+
+    private void writeEndTag(String element) throws IOException {
+        output.write('<');
+        output.write('/');
+        writeAscii(element);
+        output.write('>');
+    }
+
+    private void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            output.write(value.charAt(i));
+        }
+    }
+
+    private static boolean isPlainAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x80 || c == '<' || c == '>' || c == '&') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String escape(String value) {
+        final StringBuilder escaped = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '&' -> escaped.append("&amp;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private String positionKey() {
+        return name + ".position";
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.batch_jobs.teams.buffer;
+
+import com.example.batch_jobs.teams.domain.TeamAverageScore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Team averages of one job execution, in write order. Scores are kept as unscaled longs next to the team names;
+ * past {@code memoryCapacity} entries further averages are spilled to a temp file. The buffer only counts as
+ * complete once the producing step sealed it without having been restarted.
+ */
+public class TeamAverageScoreBuffer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int memoryCapacity;
+    private final Path spillDirectory;
+
+    private String[] teams = new String[16];
+    private long[] unscaledScores = new long[16];
+    private byte[] scales = new byte[16];
+    private int size;
+
+    private Path spillFile;
+    private DataOutputStream spill;
+    private long spilled;
+
+    private boolean invalid;
+    private boolean sealed;
+
+    public TeamAverageScoreBuffer(int memoryCapacity, Path spillDirectory) {
+        this.memoryCapacity = memoryCapacity;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public synchronized void add(TeamAverageScore score) {
+        if (size < memoryCapacity) {
+            if (size == teams.length) {
+                final int capacity = Math.min(size << 1, memoryCapacity);
+                teams = Arrays.copyOf(teams, capacity);
+                unscaledScores = Arrays.copyOf(unscaledScores, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+            }
+            teams[size] = score.getTeam();
+            unscaledScores[size] = score.getScore().unscaledValue().longValueExact();
+            scales[size] = (byte) score.getScore().scale();
+            size++;
+            return;
+        }
+        try {
+            if (spill == null) {
+                Files.createDirectories(spillDirectory);
+                spillFile = Files.createTempFile(spillDirectory, "team-averages-", ".bin");
+                spill = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), BUFFER_SIZE));
+            }
+            spill.writeUTF(score.getTeam());
+            spill.writeLong(score.getScore().unscaledValue().longValueExact());
+            spill.writeByte(score.getScore().scale());
+            spilled++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to spill team averages", e);
+        }
+    }
+
+    public synchronized void clear() {
+        size = 0;
+        spilled = 0;
+        invalid = false;
+        sealed = false;
+        deleteSpill();
+    }
+
+    public synchronized void invalidate() {
+        invalid = true;
+    }
+
+    public synchronized void seal() {
+        try {
+            if (spill != null) {
+                spill.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to flush spilled team averages", e);
+        }
+        sealed = true;
+    }
+
+    public synchronized boolean isComplete() {
+        return sealed && !invalid;
+    }
+
+    public synchronized long size() {
+        return size + spilled;
+    }
+
+    /**
+     * Iterates the sealed buffer; the spill file, if any, stays open until the iteration is exhausted or closed.
+     */
+    public synchronized ScoreIterator iterator() {
+        if (!sealed) {
+            throw new IllegalStateException("Team average buffer is not sealed yet");
+        }
+        return new ScoreIterator();
+    }
+
+    @Override
+    public synchronized void close() {
+        deleteSpill();
+        teams = new String[0];
+        size = 0;
+    }
+
+    private void deleteSpill() {
+        try {
+            if (spill != null) {
+                spill.close();
+            }
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to delete spilled team averages", e);
+        } finally {
+            spill = null;
+            spillFile = null;
+        }
+    }
+
+    public final class ScoreIterator implements Iterator<TeamAverageScore>, Closeable {
+
+        private int position;
+        private long spillPosition;
+        private DataInputStream input;
+
+        private ScoreIterator() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < size || spillPosition < spilled;
+        }
+
+        @Override
+        public TeamAverageScore next() {
+            if (position < size) {
+                final int index = position++;
+                return new TeamAverageScore(teams[index], BigDecimal.valueOf(unscaledScores[index], scales[index]));
+            }
+            if (spillPosition >= spilled) {
+                throw new NoSuchElementException();
+            }
+            try {
+                if (input == null) {
+                    input = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), BUFFER_SIZE));
+                }
+                final String team = input.readUTF();
+                final long unscaled = input.readLong();
+                final TeamAverageScore score = new TeamAverageScore(team, BigDecimal.valueOf(unscaled, input.readByte()));
+                if (++spillPosition == spilled) {
+                    close();
+                }
+                return score;
+            } catch (EOFException e) {
+                throw new IllegalStateException("Spilled team averages are truncated", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read spilled team averages", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.batch_jobs.teams.buffer;
+
+import com.example.batch_jobs.teams.domain.TeamAverageScore;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+/**
+ * Reads the averages from the buffer of the job execution when it is complete, otherwise from {@code fallback},
+ * e.g. when the job was restarted after the averages had been written.
+ */
+public class TeamAverageScoreBufferReader extends AbstractItemCountingItemStreamItemReader<TeamAverageScore> {
+
+    private final TeamAverageScoreBuffer buffer;
+    private final ItemStreamReader<TeamAverageScore> fallback;
+
+    private TeamAverageScoreBuffer.ScoreIterator scores;
+
+    public TeamAverageScoreBufferReader(String name, TeamAverageScoreBuffer buffer, ItemStreamReader<TeamAverageScore> fallback) {
+        setName(name);
+        this.buffer = buffer;
+        this.fallback = fallback;
+    }
+
+    @Override
+    protected void doOpen() {
+        if (buffer != null && buffer.isComplete()) {
+            scores = buffer.iterator();
+        } else {
+            fallback.open(new ExecutionContext());
+        }
+    }
+
+    @Override
+    protected TeamAverageScore doRead() throws Exception {
+        if (scores != null) {
+            return scores.hasNext() ? scores.next() : null;
+        }
+        return fallback.read();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (scores != null) {
+            scores.close();
+            scores = null;
+        } else {
+            fallback.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.batch_jobs.teams.buffer;
+
+import com.example.batch_jobs.teams.domain.TeamAverageScore;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Copies the averages of each committed chunk into the buffer of the job execution. A restarted step only sees
+ * part of the averages, so the buffer is invalidated instead of sealed in that case.
+ */
+public class TeamAverageScoreBufferWriter implements ItemStreamWriter<TeamAverageScore>, StepExecutionListener {
+
+    private static final String STARTED_KEY = "team_average_buffer_writer.started";
+
+    private final TeamAverageScoreBuffer buffer;
+
+    public TeamAverageScoreBufferWriter(TeamAverageScoreBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        buffer.clear();
+        if (executionContext.containsKey(STARTED_KEY)) {
+            buffer.invalidate();
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putString(STARTED_KEY, "true");
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends TeamAverageScore> chunk) {
+        final List<? extends TeamAverageScore> items = List.copyOf(chunk.getItems());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            items.forEach(buffer::add);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                items.forEach(buffer::add);
+            }
+        });
+    }
+
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        if (ExitStatus.COMPLETED.equals(stepExecution.getExitStatus())) {
+            buffer.seal();
+        } else {
+            buffer.invalidate();
+        }
+        return null;
+    }
+}
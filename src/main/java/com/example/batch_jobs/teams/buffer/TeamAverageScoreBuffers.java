@@ -0,0 +1,43 @@
+package com.example.batch_jobs.teams.buffer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one {@link TeamAverageScoreBuffer} per running job execution, so concurrent launches do not share averages.
+ */
+@Component
+@Profile("performance")
+public class TeamAverageScoreBuffers {
+
+    private final Map<Long, TeamAverageScoreBuffer> buffers = new ConcurrentHashMap<>();
+    private final int memoryCapacity;
+    private final Path spillDirectory;
+
+    public TeamAverageScoreBuffers(@Value("${teams.single-pass.memory-capacity:100000}") int memoryCapacity,
+                                   @Value("${teams.single-pass.spill-directory:${java.io.tmpdir}}") String spillDirectory) {
+        this.memoryCapacity = memoryCapacity;
+        this.spillDirectory = Path.of(spillDirectory);
+    }
+
+    public TeamAverageScoreBuffer forExecution(Long jobExecutionId) {
+        return buffers.computeIfAbsent(jobExecutionId, id -> new TeamAverageScoreBuffer(memoryCapacity, spillDirectory));
+    }
+
+    public Optional<TeamAverageScoreBuffer> find(Long jobExecutionId) {
+        return Optional.ofNullable(buffers.get(jobExecutionId));
+    }
+
+    public void release(Long jobExecutionId) {
+        final TeamAverageScoreBuffer buffer = buffers.remove(jobExecutionId);
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+}
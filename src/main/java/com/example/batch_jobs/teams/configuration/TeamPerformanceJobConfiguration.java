@@ -1,33 +1,55 @@
 package com.example.batch_jobs.teams.configuration;
 
+import com.example.batch_jobs.configuration.AdaptiveCompletionPolicy;
+import com.example.batch_jobs.configuration.AdaptiveCompletionPolicyFactory;
+import com.example.batch_jobs.teams.buffer.TeamAverageScoreBuffer;
+import com.example.batch_jobs.teams.buffer.TeamAverageScoreBufferReader;
+import com.example.batch_jobs.teams.buffer.TeamAverageScoreBufferWriter;
+import com.example.batch_jobs.teams.buffer.TeamAverageScoreBuffers;
 import com.example.batch_jobs.teams.domain.ScoreRecord;
 import com.example.batch_jobs.teams.domain.TeamAverageScore;
 import com.example.batch_jobs.teams.domain.TeamPercentageScore;
+import com.example.batch_jobs.teams.domain.TeamRankedAverageScores;
+import com.example.batch_jobs.teams.domain.TeamScoreStatistics;
 import com.example.batch_jobs.teams.domain.TeamScores;
+import com.example.batch_jobs.teams.manifest.OutputManifestTasklet;
+import com.example.batch_jobs.teams.partition.ScoreRecordAggregator;
 import com.example.batch_jobs.teams.processor.TeamAggregatedScoresItemProcessor;
+import com.example.batch_jobs.teams.processor.TeamRankedAverageScoresItemProcessor;
+import com.example.batch_jobs.teams.reader.TeamScoreFileReader;
+import com.example.batch_jobs.teams.writer.RankedAverageScoreItemWriter;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.Step;
-import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.listener.ExecutionContextPromotionListener;
+import org.springframework.batch.core.partition.support.MultiResourcePartitioner;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.core.step.tasklet.CommandRunner;
-import org.springframework.batch.core.step.tasklet.JvmCommandRunner;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.builder.MultiResourceItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -35,17 +57,35 @@ import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Configuration
 @Profile("performance")
@@ -68,22 +108,46 @@ public class TeamPerformanceJobConfiguration {
 
     @Bean
     public Job teamPerformanceJob(@Qualifier("readTeamFiles") Step readTeamStatisticsFile,
+                                  @Qualifier("partitionedReadTeamFiles") Step readTeamFilesInParallel,
+                                  @Qualifier("mergeAverageScores") Step mergeAverageScores,
+                                  @Qualifier("writeStatistics") Step writeStatisticsInOnePass,
+                                  @Value("${teams.partitioned.enabled:false}") boolean partitioned,
+                                  @Value("${teams.single-pass.enabled:false}") boolean singlePass,
+                                  TeamAverageScoreBuffers averageScoreBuffers,
                                   @Qualifier("writeMaxStatistics") Step writeMaxStatistics,
                                   @Qualifier("writeMinStatistics") Step writeMinStatistics,
-                                  @Qualifier("commandLineCall") Step commandLineCall,
+                                  @Qualifier("readRankedTeamFiles") Step readRankedTeamFiles,
+                                  @Qualifier("writeRankStatistics") Step writeRankStatistics,
+                                  @Qualifier("writeOutputManifest") Step writeOutputManifest,
                                   @Qualifier("twoCoresExecutor") TaskExecutor executor,
                                   JobRepository jobRepository) {
-        return new JobBuilder("team_performance_report", jobRepository)
-                .start(new FlowBuilder<Flow>("read_team_scores_flow").start(readTeamStatisticsFile).build())
-                .next(new FlowBuilder<Flow>("write_statistics_in_parallel_flow")
+        final Flow readTeamScores = partitioned
+                ? new FlowBuilder<Flow>("read_team_scores_flow").start(readTeamFilesInParallel).next(mergeAverageScores).build()
+                : new FlowBuilder<Flow>("read_team_scores_flow").start(readTeamStatisticsFile).build();
+        final Flow writeStatistics = singlePass
+                ? new FlowBuilder<Flow>("write_statistics_flow").start(writeStatisticsInOnePass).build()
+                : new FlowBuilder<Flow>("write_statistics_in_parallel_flow")
                         .split(executor)
                         .add(
                                 new FlowBuilder<Flow>("write_max_flow").start(writeMaxStatistics).build(),
                                 new FlowBuilder<Flow>("write_min_flow").start(writeMinStatistics).build()
                         )
-                        .build())
-                .next(commandLineCall)
-                .build()
+                        .build();
+        final JobExecutionDecider rankMode = (jobExecution, stepExecution) ->
+                jobExecution.getJobParameters().getString(TeamRankedAverageScoresItemProcessor.SCORE_RANKS_PARAMETER) == null
+                        ? new FlowExecutionStatus("SINGLE_RANK")
+                        : new FlowExecutionStatus("MULTI_RANK");
+        return new JobBuilder("team_performance_report", jobRepository)
+                .listener(new JobExecutionListener() {
+                    @Override
+                    public void afterJob(@NonNull JobExecution jobExecution) {
+                        averageScoreBuffers.release(jobExecution.getId());
+                    }
+                })
+                .start(rankMode)
+                .on("MULTI_RANK").to(readRankedTeamFiles).next(writeRankStatistics).next(writeOutputManifest)
+                .from(rankMode).on("*").to(readTeamScores).next(writeStatistics).next(writeOutputManifest)
+                .end()
                 .build();
     }
 
@@ -97,38 +161,251 @@ public class TeamPerformanceJobConfiguration {
     @Bean
     public Step readTeamFiles(@Qualifier("multiResourceItemReader") MultiResourceItemReader<TeamScores> reader,
                               @Qualifier("teamAggregatedScoresItemProcessor") TeamAggregatedScoresItemProcessor processor,
-                              @Qualifier("averageTeamScoreFileWriter") ItemWriter<TeamAverageScore> writer,
+                              @Qualifier("averageTeamScoreFileWriter") FlatFileItemWriter<TeamAverageScore> writer,
                               @Qualifier("contextPromotionListener") StepExecutionListener promotionListener,
+                              @Qualifier("averageTeamScoreBufferWriter") TeamAverageScoreBufferWriter bufferWriter,
+                              @Qualifier("teamStatisticsFileWriter") FlatFileItemWriter<TeamAverageScore> statisticsWriter,
+                              @Value("${teams.single-pass.enabled:false}") boolean singlePass,
+                              @Value("${teams.statistics.enabled:false}") boolean statistics,
+                              AdaptiveCompletionPolicyFactory completionPolicies,
                               JobRepository jobRepository,
                               PlatformTransactionManager platformTransactionManager) {
-        return new StepBuilder("read_team_files", jobRepository)
-                .<TeamScores, TeamAverageScore>chunk(1, platformTransactionManager)
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("read_team_files");
+        final List<ItemWriter<? super TeamAverageScore>> writers = new ArrayList<>(List.of(writer));
+        if (singlePass) {
+            writers.add(bufferWriter);
+        }
+        if (statistics) {
+            writers.add(statisticsWriter);
+        }
+        final SimpleStepBuilder<TeamScores, TeamAverageScore> step = new StepBuilder("read_team_files", jobRepository)
+                .<TeamScores, TeamAverageScore>chunk(completionPolicy, platformTransactionManager)
                 .reader(reader)
                 .processor(processor)
-                .writer(writer)
-                .listener(new StepExecutionListener() {
-                    @Override
-                    public void beforeStep(@NonNull StepExecution stepExecution) {
-                        processor.setExecutionContext(stepExecution.getExecutionContext());
-                    }
-                })
-                .listener(promotionListener)
-                .faultTolerant()
+                .writer(writers.size() == 1 ? writer : new CompositeItemWriter<>(writers))
+                .listener(completionPolicy)
+                .listener(promotionListener);
+        if (singlePass) {
+            step.listener((StepExecutionListener) bufferWriter);
+        }
+        return step.faultTolerant()
                 .skip(IndexOutOfBoundsException.class)
                 .skipLimit(100)
                 .build();
     }
 
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<TeamAverageScore> teamStatisticsFileWriter(
+            @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp5_team_statistics.txt") String destination,
+            @Value("${teams.statistics.percentiles:50,90,95}") double[] percentiles
+    ) {
+        return statisticsWriter("team_statistics_writer", destination)
+                .headerCallback(writer -> writer.write(statisticsHeader(percentiles)))
+                .build();
+    }
+
+    private static FlatFileItemWriterBuilder<TeamAverageScore> statisticsWriter(String name, String destination) {
+        return new FlatFileItemWriterBuilder<TeamAverageScore>()
+                .name(name)
+                .resource(new FileSystemResource(destination))
+                .lineAggregator(item -> ((TeamScoreStatistics) item).getScores().stream()
+                        .map(score -> score.getScore().toPlainString())
+                        .collect(Collectors.joining("\t", item.getTeam() + "\t", "")))
+                .shouldDeleteIfExists(true);
+    }
+
+    private static String statisticsHeader(double[] percentiles) {
+        return Arrays.stream(percentiles)
+                .mapToObj(percentile -> "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString())
+                .collect(Collectors.joining("\t", "team\tmin\tavg\tmax\t", ""));
+    }
+
+    @Bean
+    @StepScope
+    public TeamAverageScoreBufferWriter averageTeamScoreBufferWriter(TeamAverageScoreBuffers buffers,
+                                                                     @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        return new TeamAverageScoreBufferWriter(buffers.forExecution(jobExecutionId));
+    }
+
     @Bean
     public StepExecutionListener contextPromotionListener() {
         final ExecutionContextPromotionListener listener = new ExecutionContextPromotionListener();
-        listener.setKeys(new String[]{"maxScoreRecord", "minScoreRecord"});
+        listener.setKeys(new String[]{
+                TeamAggregatedScoresItemProcessor.MAX_SCORE_RECORD_KEY,
+                TeamAggregatedScoresItemProcessor.MIN_SCORE_RECORD_KEY
+        });
         return listener;
     }
 
     @Bean
+    public Step partitionedReadTeamFiles(@Qualifier("readTeamFile") Step worker,
+                                         @Qualifier("teamFilePartitioner") Partitioner partitioner,
+                                         @Qualifier("teamFilePartitionExecutor") TaskExecutor taskExecutor,
+                                         @Qualifier("contextPromotionListener") StepExecutionListener promotionListener,
+                                         @Value("${teams.partitioned.concurrency:4}") int concurrency,
+                                         JobRepository jobRepository) {
+        return new StepBuilder("read_team_files", jobRepository)
+                .partitioner("read_team_file", partitioner)
+                .step(worker)
+                .taskExecutor(taskExecutor)
+                .gridSize(concurrency)
+                .aggregator(new ScoreRecordAggregator(jobRepository, "read_team_file"))
+                .listener(promotionListener)
+                .build();
+    }
+
+    @Bean
+    public Partitioner teamFilePartitioner(@Value("${teams.input:classpath:teams/scores_*.txt}") Resource[] files) {
+        final MultiResourcePartitioner partitioner = new MultiResourcePartitioner();
+        partitioner.setResources(Arrays.stream(files)
+                .sorted(Comparator.comparing(Resource::getFilename, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toArray(Resource[]::new));
+        return gridSize -> {
+            final Map<String, ExecutionContext> partitions = partitioner.partition(gridSize);
+            partitions.forEach((name, context) -> {
+                context.putString("averageFile", name + ".txt");
+                context.putString("statisticsFile", name + "_statistics.txt");
+            });
+            return partitions;
+        };
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor teamFilePartitionExecutor(@Value("${teams.partitioned.concurrency:4}") int concurrency) {
+        return new ThreadPoolTaskExecutorBuilder()
+                .corePoolSize(concurrency)
+                .maxPoolSize(concurrency)
+                .threadNamePrefix("team-partition-")
+                .build();
+    }
+
+    @Bean
+    public Step readTeamFile(@Qualifier("partitionTeamScoreFileReader") ItemReader<TeamScores> reader,
+                             @Qualifier("teamAggregatedScoresItemProcessor") TeamAggregatedScoresItemProcessor processor,
+                             @Qualifier("partitionAverageTeamScoreFileWriter") FlatFileItemWriter<TeamAverageScore> writer,
+                             @Qualifier("partitionTeamStatisticsFileWriter") FlatFileItemWriter<TeamAverageScore> statisticsWriter,
+                             @Value("${teams.statistics.enabled:false}") boolean statistics,
+                             AdaptiveCompletionPolicyFactory completionPolicies,
+                             JobRepository jobRepository,
+                             PlatformTransactionManager platformTransactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("read_team_file");
+        return new StepBuilder("read_team_file", jobRepository)
+                .<TeamScores, TeamAverageScore>chunk(completionPolicy, platformTransactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(statistics ? new CompositeItemWriter<>(writer, statisticsWriter) : writer)
+                .listener(completionPolicy)
+                .faultTolerant()
+                .skip(IndexOutOfBoundsException.class)
+                .skipLimit(100)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public TeamScoreFileReader partitionTeamScoreFileReader(@Value("#{stepExecutionContext['fileName']}") Resource file) {
+        final ResourceAwareItemReaderItemStream<String> lines = new FlatFileItemReaderBuilder<String>()
+                .name("team_file_line_reader")
+                .lineMapper((line, lineNumber) -> line)
+                .build();
+        final TeamScoreFileReader reader = new TeamScoreFileReader(lines);
+        reader.setResource(file);
+        return reader;
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<TeamAverageScore> partitionAverageTeamScoreFileWriter(
+            @Value("${teams.partitioned.work-directory:team-partitions}/#{stepExecution.jobExecution.jobInstance.instanceId}/#{stepExecutionContext['averageFile']}") String destination
+    ) {
+        return new FlatFileItemWriterBuilder<TeamAverageScore>()
+                .name("average_team_score_partition_writer")
+                .resource(new FileSystemResource(destination))
+                .delimited()
+                .delimiter(":")
+                .names("team", "score")
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<TeamAverageScore> partitionTeamStatisticsFileWriter(
+            @Value("${teams.partitioned.work-directory:team-partitions}/#{stepExecution.jobExecution.jobInstance.instanceId}/#{stepExecutionContext['statisticsFile']}") String destination
+    ) {
+        return statisticsWriter("team_statistics_partition_writer", destination).build();
+    }
+
+    @Bean
+    public Step mergeAverageScores(@Value("${teams.partitioned.work-directory:team-partitions}") String workDirectory,
+                                   @Value("${teams.output.directory:team-reports}") String outputDirectory,
+                                   @Value("${teams.single-pass.enabled:false}") boolean singlePass,
+                                   @Value("${teams.statistics.enabled:false}") boolean statistics,
+                                   @Value("${teams.statistics.percentiles:50,90,95}") double[] percentiles,
+                                   TeamAverageScoreBuffers averageScoreBuffers,
+                                   JobRepository jobRepository,
+                                   PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("merge_average_scores", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    final JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+                    final Path partitions = Path.of(workDirectory, String.valueOf(jobExecution.getJobInstance().getInstanceId()));
+                    final Path destination = outputDirectory(outputDirectory, jobExecution).resolve("tp1_average_scores.txt");
+                    final TeamAverageScoreBuffer buffer = singlePass ? averageScoreBuffers.forExecution(jobExecution.getId()) : null;
+                    Files.createDirectories(destination.getParent());
+                    mergeAverageFiles(partitions, new FileSystemResource(destination), buffer);
+                    if (statistics) {
+                        mergeStatisticsFiles(partitions, destination.resolveSibling("tp5_team_statistics.txt"), statisticsHeader(percentiles));
+                    }
+                    FileSystemUtils.deleteRecursively(partitions);
+                    return RepeatStatus.FINISHED;
+                }, platformTransactionManager)
+                .build();
+    }
+
+    private static Path outputDirectory(String outputDirectory, JobExecution jobExecution) {
+        return Path.of(outputDirectory, String.valueOf(jobExecution.getJobInstance().getInstanceId()));
+    }
+
+    private static void mergeAverageFiles(Path partitions, WritableResource destination, TeamAverageScoreBuffer buffer) throws IOException {
+        if (buffer != null) {
+            buffer.clear();
+        }
+        try (OutputStream output = new BufferedOutputStream(destination.getOutputStream())) {
+            Path partition;
+            for (int index = 0; Files.exists(partition = partitions.resolve("partition" + index + ".txt")); index++) {
+                if (buffer == null) {
+                    Files.copy(partition, output);
+                    continue;
+                }
+                try (BufferedReader lines = Files.newBufferedReader(partition)) {
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        output.write((line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                        final int separator = line.lastIndexOf(':');
+                        buffer.add(new TeamAverageScore(line.substring(0, separator), new BigDecimal(line.substring(separator + 1))));
+                    }
+                }
+            }
+        }
+        if (buffer != null) {
+            buffer.seal();
+        }
+    }
+
+    private static void mergeStatisticsFiles(Path partitions, Path destination, String header) throws IOException {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(destination))) {
+            output.write((header + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            Path partition;
+            for (int index = 0; Files.exists(partition = partitions.resolve("partition" + index + "_statistics.txt")); index++) {
+                Files.copy(partition, output);
+            }
+        }
+    }
+
+    @Bean
+    @StepScope
     public MultiResourceItemReader<TeamScores> multiResourceItemReader(@Qualifier("teamScoreFileReader") ResourceAwareItemReaderItemStream<TeamScores> reader,
-                                                                       @Value("classpath:teams/scores_*.txt") Resource[] files) {
+                                                                       @Value("${teams.input:classpath:teams/scores_*.txt}") Resource[] files) {
         return new MultiResourceItemReaderBuilder<TeamScores>()
                 .resources(files)
                 .delegate(reader)
@@ -137,6 +414,7 @@ public class TeamPerformanceJobConfiguration {
     }
 
     @Bean
+    @StepScope
     public ResourceAwareItemReaderItemStream<String> simpleStringLineReader() {
         return new FlatFileItemReaderBuilder<String>()
                 .name("simple_line_to_string_file_reader")
@@ -146,10 +424,13 @@ public class TeamPerformanceJobConfiguration {
     }
 
     @Bean
-    public ItemWriter<TeamAverageScore> averageTeamScoreFileWriter(@Value("file:tp1_average_scores.txt") WritableResource destination) {
+    @StepScope
+    public FlatFileItemWriter<TeamAverageScore> averageTeamScoreFileWriter(
+            @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp1_average_scores.txt") String destination
+    ) {
         return new FlatFileItemWriterBuilder<TeamAverageScore>()
                 .name("average_team_score_writer")
-                .resource(destination)
+                .resource(new FileSystemResource(destination))
                 .delimited()
                 .delimiter(":")
                 .names("team", "score")
@@ -162,20 +443,28 @@ public class TeamPerformanceJobConfiguration {
     public Step writeMaxStatistics(@Qualifier("readAverageScoresForMax") ItemReader<TeamAverageScore> reader,
                                    @Qualifier("calculatePercentageMax") ItemProcessor<TeamAverageScore, TeamPercentageScore> processor,
                                    @Qualifier("writeMaxStats") ItemWriter<TeamPercentageScore> writer,
+                                   AdaptiveCompletionPolicyFactory completionPolicies,
                                    JobRepository jobRepository,
                                    PlatformTransactionManager platformTransactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("write_max_statistics");
         return new StepBuilder("write_max_statistics", jobRepository)
-                .<TeamAverageScore, TeamPercentageScore>chunk(1, platformTransactionManager)
+                .<TeamAverageScore, TeamPercentageScore>chunk(completionPolicy, platformTransactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
+                .listener(completionPolicy)
                 .build();
     }
 
     @Bean
-    public ItemReader<TeamAverageScore> readAverageScoresForMax(@Value("file:tp1_average_scores.txt") Resource resource) {
+    @StepScope
+    public FlatFileItemReader<TeamAverageScore> readAverageScoresForMax(@Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp1_average_scores.txt") String source) {
+        return averageScoresReader("average_score_reader_max", new FileSystemResource(source));
+    }
+
+    private static FlatFileItemReader<TeamAverageScore> averageScoresReader(String name, Resource resource) {
         return new FlatFileItemReaderBuilder<TeamAverageScore>()
-                .name("average_score_reader_max")
+                .name(name)
                 .delimited()
                 .delimiter(":")
                 .names("team", "score")
@@ -196,11 +485,12 @@ public class TeamPerformanceJobConfiguration {
     }
 
     @Bean
-    public ItemWriter<TeamPercentageScore> writeMaxStats(@Value("file:tp2_max_statistics.txt") WritableResource destination,
-                                                         @Qualifier("maxHeaderCallback") FlatFileHeaderCallback callback) {
+    @StepScope
+    public FlatFileItemWriter<TeamPercentageScore> writeMaxStats(@Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp2_max_statistics.txt") String destination,
+                                                                 @Qualifier("maxHeaderCallback") FlatFileHeaderCallback callback) {
         return GET_WRITER_BUILDER.get()
                 .name("max_stats_writer")
-                .resource(destination)
+                .resource(new FileSystemResource(destination))
                 .headerCallback(callback)
                 .build();
     }
@@ -208,9 +498,18 @@ public class TeamPerformanceJobConfiguration {
     @Bean
     @StepScope
     public FlatFileHeaderCallback maxHeaderCallback(@Value("#{jobExecutionContext['maxScoreRecord']}") ScoreRecord maxScore) {
+        return scoreRecordHeader("best", maxScore);
+    }
+
+    /**
+     * Without a score record, e.g. for a rank no team reaches, the header says so and the report stays empty.
+     */
+    private static FlatFileHeaderCallback scoreRecordHeader(String result, @Nullable ScoreRecord scoreRecord) {
         return writer -> {
-            final String message = "*  The best result is %.2f and was scored by %s!  *\n"
-                    .formatted(maxScore.score(), maxScore.name());
+            final String message = scoreRecord == null
+                    ? "*  There is no %s result!  *\n".formatted(result)
+                    : "*  The %s result is %.2f and was scored by %s!  *\n"
+                    .formatted(result, scoreRecord.score(), scoreRecord.name());
             final String delimiter = "*".repeat(message.length() - 1) + "\n";
             writer.write(delimiter);
             writer.write(message);
@@ -222,29 +521,23 @@ public class TeamPerformanceJobConfiguration {
     public Step writeMinStatistics(@Qualifier("readAverageScoresForMin") ItemReader<TeamAverageScore> reader,
                                    @Qualifier("calculatePercentageMin") ItemProcessor<TeamAverageScore, TeamPercentageScore> processor,
                                    @Qualifier("writeMinStats") ItemWriter<TeamPercentageScore> writer,
+                                   AdaptiveCompletionPolicyFactory completionPolicies,
                                    JobRepository jobRepository,
                                    PlatformTransactionManager platformTransactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("write_min_statistics");
         return new StepBuilder("write_min_statistics", jobRepository)
-                .<TeamAverageScore, TeamPercentageScore>chunk(1, platformTransactionManager)
+                .<TeamAverageScore, TeamPercentageScore>chunk(completionPolicy, platformTransactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
+                .listener(completionPolicy)
                 .build();
     }
 
     @Bean
-    public ItemReader<TeamAverageScore> readAverageScoresForMin(@Value("file:tp1_average_scores.txt") Resource resource) {
-        return new FlatFileItemReaderBuilder<TeamAverageScore>()
-                .name("average_score_reader_min")
-                .delimited()
-                .delimiter(":")
-                .names("team", "score")
-                .fieldSetMapper(fieldSet -> new TeamAverageScore(
-                        fieldSet.readString(0),
-                        fieldSet.readBigDecimal(1)
-                ))
-                .resource(resource)
-                .build();
+    @StepScope
+    public FlatFileItemReader<TeamAverageScore> readAverageScoresForMin(@Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp1_average_scores.txt") String source) {
+        return averageScoresReader("average_score_reader_min", new FileSystemResource(source));
     }
 
     @Bean
@@ -256,45 +549,238 @@ public class TeamPerformanceJobConfiguration {
     }
 
     @Bean
-    public ItemWriter<TeamPercentageScore> writeMinStats(@Value("file:tp3_min_statistics.txt") WritableResource destination,
-                                                         @Qualifier("minHeaderCallback") FlatFileHeaderCallback callback) {
+    @StepScope
+    public FlatFileItemWriter<TeamPercentageScore> writeMinStats(@Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp3_min_statistics.txt") String destination,
+                                                                 @Qualifier("minHeaderCallback") FlatFileHeaderCallback callback) {
         return GET_WRITER_BUILDER.get()
                 .name("min_stats_writer")
-                .resource(destination)
+                .resource(new FileSystemResource(destination))
                 .headerCallback(callback)
                 .build();
     }
 
     @Bean
     @StepScope
-    public FlatFileHeaderCallback minHeaderCallback(@Value("#{jobExecutionContext['minScoreRecord']}") ScoreRecord maxScore) {
-        return writer -> {
-            final String message = "*  The worst result is %.2f and was scored by %s!  *\n"
-                    .formatted(maxScore.score(), maxScore.name());
-            final String delimiter = "*".repeat(message.length() - 1) + "\n";
-            writer.write(delimiter);
-            writer.write(message);
-            writer.write(delimiter);
-        };
+    public FlatFileHeaderCallback minHeaderCallback(@Value("#{jobExecutionContext['minScoreRecord']}") ScoreRecord minScore) {
+        return scoreRecordHeader("worst", minScore);
     }
 
     @Bean
-    public Step commandLineCall(@Qualifier("commandLineCallTasklet") Tasklet tasklet,
+    public Step writeStatistics(@Qualifier("bufferedAverageScoreReader") ItemReader<TeamAverageScore> reader,
+                                @Qualifier("calculatePercentageMax") ItemProcessor<TeamAverageScore, TeamPercentageScore> maxProcessor,
+                                @Qualifier("calculatePercentageMin") ItemProcessor<TeamAverageScore, TeamPercentageScore> minProcessor,
+                                @Qualifier("writeMaxStats") FlatFileItemWriter<TeamPercentageScore> maxWriter,
+                                @Qualifier("writeMinStats") FlatFileItemWriter<TeamPercentageScore> minWriter,
+                                AdaptiveCompletionPolicyFactory completionPolicies,
                                 JobRepository jobRepository,
                                 PlatformTransactionManager platformTransactionManager) {
-        return new StepBuilder("command_line_call", jobRepository)
-                .tasklet(tasklet, platformTransactionManager)
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("write_statistics");
+        return new StepBuilder("write_statistics", jobRepository)
+                .<TeamAverageScore, TeamAverageScore>chunk(completionPolicy, platformTransactionManager)
+                .reader(reader)
+                .writer(chunk -> {
+                    maxWriter.write(percentages(chunk, maxProcessor));
+                    minWriter.write(percentages(chunk, minProcessor));
+                })
+                .stream(maxWriter)
+                .stream(minWriter)
+                .listener(completionPolicy)
+                .build();
+    }
+
+    private static Chunk<TeamPercentageScore> percentages(Chunk<? extends TeamAverageScore> chunk,
+                                                          ItemProcessor<TeamAverageScore, TeamPercentageScore> processor) throws Exception {
+        final Chunk<TeamPercentageScore> percentages = new Chunk<>();
+        for (TeamAverageScore item : chunk) {
+            percentages.add(processor.process(item));
+        }
+        return percentages;
+    }
+
+    @Bean
+    @StepScope
+    public TeamAverageScoreBufferReader bufferedAverageScoreReader(TeamAverageScoreBuffers buffers,
+                                                                   @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                                                   @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}/tp1_average_scores.txt") String source) {
+        return new TeamAverageScoreBufferReader("buffered_average_score_reader",
+                buffers.find(jobExecutionId).orElse(null),
+                averageScoresReader("average_score_reader", new FileSystemResource(source)));
+    }
+
+    @Bean
+    public Step readRankedTeamFiles(@Qualifier("multiResourceItemReader") MultiResourceItemReader<TeamScores> reader,
+                                    @Qualifier("teamRankedAverageScoresItemProcessor") TeamRankedAverageScoresItemProcessor processor,
+                                    @Qualifier("rankedAverageTeamScoreFileWriter") RankedAverageScoreItemWriter writer,
+                                    @Qualifier("rankedContextPromotionListener") StepExecutionListener promotionListener,
+                                    AdaptiveCompletionPolicyFactory completionPolicies,
+                                    JobRepository jobRepository,
+                                    PlatformTransactionManager platformTransactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("read_ranked_team_files");
+        return new StepBuilder("read_ranked_team_files", jobRepository)
+                .<TeamScores, TeamRankedAverageScores>chunk(completionPolicy, platformTransactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .listener(completionPolicy)
+                .listener(promotionListener)
+                .faultTolerant()
+                .skip(IndexOutOfBoundsException.class)
+                .skipLimit(100)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public RankedAverageScoreItemWriter rankedAverageTeamScoreFileWriter(@Value("#{jobParameters['scoreRanks']}") String scoreRanks,
+                                                                         @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}") String directory) {
+        return new RankedAverageScoreItemWriter(TeamRankedAverageScoresItemProcessor.parseRanks(scoreRanks).stream()
+                .map(rank -> new FlatFileItemWriterBuilder<TeamAverageScore>()
+                        .name("average_team_score_writer_rank" + rank)
+                        .resource(new FileSystemResource(rankFile(directory, "tp1_average_scores", rank)))
+                        .delimited()
+                        .delimiter(":")
+                        .names("team", "score")
+                        .append(false)
+                        .shouldDeleteIfExists(true)
+                        .build())
+                .toList());
+    }
+
+    @Bean
+    @StepScope
+    public ExecutionContextPromotionListener rankedContextPromotionListener(@Value("#{jobParameters['scoreRanks']}") String scoreRanks) {
+        final ExecutionContextPromotionListener listener = new ExecutionContextPromotionListener();
+        listener.setKeys(TeamRankedAverageScoresItemProcessor.parseRanks(scoreRanks).stream()
+                .flatMap(rank -> Stream.of(
+                        TeamRankedAverageScoresItemProcessor.maxScoreRecordKey(rank),
+                        TeamRankedAverageScoresItemProcessor.minScoreRecordKey(rank)
+                ))
+                .toArray(String[]::new));
+        return listener;
+    }
+
+    @Bean
+    public Step writeRankStatistics(@Qualifier("writeRankStatisticsPartition") Step worker,
+                                    @Qualifier("scoreRankPartitioner") Partitioner partitioner,
+                                    @Qualifier("teamFilePartitionExecutor") TaskExecutor taskExecutor,
+                                    @Value("${teams.partitioned.concurrency:4}") int concurrency,
+                                    JobRepository jobRepository) {
+        return new StepBuilder("write_rank_statistics", jobRepository)
+                .partitioner("write_rank_statistics_partition", partitioner)
+                .step(worker)
+                .taskExecutor(taskExecutor)
+                .gridSize(concurrency)
                 .build();
     }
 
     @Bean
-    public Tasklet commandLineCallTasklet() {
-        return (contribution, chunkContext) -> {
-            final CommandRunner cli = new JvmCommandRunner();
-            String[] cmd = {"/bin/bash", "-c", "ls -l > tp4_output.txt"};
-            cli.exec(cmd, new String[0], null);
-            return RepeatStatus.FINISHED;
+    @StepScope
+    public Partitioner scoreRankPartitioner(@Value("#{jobParameters['scoreRanks']}") String scoreRanks,
+                                            @Value("#{jobExecutionContext}") Map<String, Object> jobExecutionContext) {
+        return gridSize -> {
+            final Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+            for (Integer rank : TeamRankedAverageScoresItemProcessor.parseRanks(scoreRanks)) {
+                final ExecutionContext context = new ExecutionContext();
+                context.putInt("scoreRank", rank);
+                context.put(TeamAggregatedScoresItemProcessor.MAX_SCORE_RECORD_KEY,
+                        jobExecutionContext.get(TeamRankedAverageScoresItemProcessor.maxScoreRecordKey(rank)));
+                context.put(TeamAggregatedScoresItemProcessor.MIN_SCORE_RECORD_KEY,
+                        jobExecutionContext.get(TeamRankedAverageScoresItemProcessor.minScoreRecordKey(rank)));
+                partitions.put("rank" + rank, context);
+            }
+            return partitions;
         };
     }
 
+    @Bean
+    public Step writeRankStatisticsPartition(@Qualifier("rankAverageScoresReader") ItemReader<TeamAverageScore> reader,
+                                             @Qualifier("calculateRankPercentageMax") ItemProcessor<TeamAverageScore, TeamPercentageScore> maxProcessor,
+                                             @Qualifier("calculateRankPercentageMin") ItemProcessor<TeamAverageScore, TeamPercentageScore> minProcessor,
+                                             @Qualifier("writeRankMaxStats") FlatFileItemWriter<TeamPercentageScore> maxWriter,
+                                             @Qualifier("writeRankMinStats") FlatFileItemWriter<TeamPercentageScore> minWriter,
+                                             AdaptiveCompletionPolicyFactory completionPolicies,
+                                             JobRepository jobRepository,
+                                             PlatformTransactionManager platformTransactionManager) {
+        final AdaptiveCompletionPolicy completionPolicy = completionPolicies.forStep("write_rank_statistics_partition");
+        return new StepBuilder("write_rank_statistics_partition", jobRepository)
+                .<TeamAverageScore, TeamAverageScore>chunk(completionPolicy, platformTransactionManager)
+                .reader(reader)
+                .writer(chunk -> {
+                    maxWriter.write(percentages(chunk, maxProcessor));
+                    minWriter.write(percentages(chunk, minProcessor));
+                })
+                .stream(maxWriter)
+                .stream(minWriter)
+                .listener(completionPolicy)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemReader<TeamAverageScore> rankAverageScoresReader(@Value("#{stepExecutionContext['scoreRank']}") int scoreRank,
+                                                                        @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}") String directory) {
+        return averageScoresReader("average_score_reader", new FileSystemResource(rankFile(directory, "tp1_average_scores", scoreRank)));
+    }
+
+    @Bean
+    @StepScope
+    public ItemProcessor<TeamAverageScore, TeamPercentageScore> calculateRankPercentageMax(
+            @Value("#{stepExecutionContext['maxScoreRecord']}") ScoreRecord maxScore
+    ) {
+        return GET_PROCESSOR.apply(maxScore);
+    }
+
+    @Bean
+    @StepScope
+    public ItemProcessor<TeamAverageScore, TeamPercentageScore> calculateRankPercentageMin(
+            @Value("#{stepExecutionContext['minScoreRecord']}") ScoreRecord minScore
+    ) {
+        return GET_PROCESSOR.apply(minScore);
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<TeamPercentageScore> writeRankMaxStats(@Value("#{stepExecutionContext['scoreRank']}") int scoreRank,
+                                                                     @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}") String directory,
+                                                                     @Value("#{stepExecutionContext['maxScoreRecord']}") ScoreRecord maxScore) {
+        return GET_WRITER_BUILDER.get()
+                .name("max_stats_writer")
+                .resource(new FileSystemResource(rankFile(directory, "tp2_max_statistics", scoreRank)))
+                .headerCallback(scoreRecordHeader("best", maxScore))
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<TeamPercentageScore> writeRankMinStats(@Value("#{stepExecutionContext['scoreRank']}") int scoreRank,
+                                                                     @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}") String directory,
+                                                                     @Value("#{stepExecutionContext['minScoreRecord']}") ScoreRecord minScore) {
+        return GET_WRITER_BUILDER.get()
+                .name("min_stats_writer")
+                .resource(new FileSystemResource(rankFile(directory, "tp3_min_statistics", scoreRank)))
+                .headerCallback(scoreRecordHeader("worst", minScore))
+                .build();
+    }
+
+    private static String rankFile(String directory, String report, int scoreRank) {
+        return "%s/%s_rank%d.txt".formatted(directory, report, scoreRank);
+    }
+
+    @Bean
+    public Step writeOutputManifest(@Qualifier("outputManifestTasklet") Tasklet tasklet,
+                                    JobRepository jobRepository,
+                                    PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("write_output_manifest", jobRepository)
+                .tasklet(tasklet, platformTransactionManager)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public Tasklet outputManifestTasklet(
+            @Value("${teams.output.directory:team-reports}/#{stepExecution.jobExecution.jobInstance.instanceId}") String directory
+    ) {
+        return new OutputManifestTasklet(Path.of(directory), "tp4_output.txt");
+    }
+
 }
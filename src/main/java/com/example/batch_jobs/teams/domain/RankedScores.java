@@ -0,0 +1,80 @@
+package com.example.batch_jobs.teams.domain;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Scores kept as hundredths and looked up by rank in descending order. Instead of sorting up front, the
+ * requested rank is placed with quickselect on access, as callers usually need a single rank per player.
+ * Not thread-safe: {@link #scoreAt(int)} reorders the backing array.
+ */
+public final class RankedScores {
+
+    private static final int SCALE = 2;
+
+    private final long[] scores;
+
+    /**
+     * Takes ownership of {@code scores}, which {@link #scoreAt(int)} reorders in place.
+     */
+    public RankedScores(long[] scores) {
+        this.scores = scores;
+    }
+
+    /**
+     * Score at {@code rank}, where rank 0 is the highest score. Reorders the backing array in place.
+     */
+    public BigDecimal scoreAt(int rank) {
+        Objects.checkIndex(rank, scores.length);
+        return BigDecimal.valueOf(select(rank), SCALE);
+    }
+
+    public int size() {
+        return scores.length;
+    }
+
+    private long select(int rank) {
+        int left = 0;
+        int right = scores.length - 1;
+        while (left < right) {
+            final int pivotIndex = partition(left, right, medianOfThree(left, left + (right - left) / 2, right));
+            if (pivotIndex == rank) {
+                break;
+            } else if (pivotIndex < rank) {
+                left = pivotIndex + 1;
+            } else {
+                right = pivotIndex - 1;
+            }
+        }
+        return scores[rank];
+    }
+
+    private int partition(int left, int right, int pivotIndex) {
+        final long pivot = scores[pivotIndex];
+        swap(pivotIndex, right);
+        int store = left;
+        for (int i = left; i < right; i++) {
+            if (scores[i] > pivot) {
+                swap(i, store++);
+            }
+        }
+        swap(store, right);
+        return store;
+    }
+
+    private int medianOfThree(int a, int b, int c) {
+        final long x = scores[a];
+        final long y = scores[b];
+        final long z = scores[c];
+        if (x < y) {
+            return y < z ? b : (x < z ? c : a);
+        }
+        return x < z ? a : (y < z ? c : b);
+    }
+
+    private void swap(int i, int j) {
+        final long tmp = scores[i];
+        scores[i] = scores[j];
+        scores[j] = tmp;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.batch_jobs.teams.domain;
+
+import com.example.batch_jobs.domain.LongQuantileSketch;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-pass distribution of scores in hundredths: count, sum, min and max, plus a {@link LongQuantileSketch} for
+ * percentiles. The sketch is exact up to {@code exactCapacity} scores and then switches to a histogram with
+ * {@code bucketWidth} hundredths per bucket; with the default width of one hundredth it stays exact. Two
+ * distributions can be merged.
+ */
+public class ScoreDistribution {
+
+    private static final int SCALE = 2;
+
+    private final LongQuantileSketch sketch;
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public ScoreDistribution(int exactCapacity, long bucketWidth) {
+        this.sketch = new LongQuantileSketch(exactCapacity, bucketWidth);
+    }
+
+    public void accept(BigDecimal score) {
+        accept(score.movePointRight(SCALE).longValueExact());
+    }
+
+    public void accept(long score) {
+        count++;
+        sum += score;
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+        sketch.accept(score);
+    }
+
+    public void merge(ScoreDistribution other) {
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    public BigDecimal getAverage() {
+        return BigDecimal.valueOf(sum, SCALE).divide(BigDecimal.valueOf(count), SCALE, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getMin() {
+        return BigDecimal.valueOf(min, SCALE);
+    }
+
+    public BigDecimal getMax() {
+        return BigDecimal.valueOf(max, SCALE);
+    }
+
+    /**
+     * Nearest-rank percentile, {@code percentile} being in {@code (0, 100]}.
+     */
+    public BigDecimal getPercentile(double percentile) {
+        return BigDecimal.valueOf(Math.clamp(sketch.quantile(percentile / 100.0, count), min, max), SCALE);
+    }
+
+    public TeamScoreStatistics toStatistics(String team, double[] percentiles) {
+        final List<TeamPercentileScore> percentileScores = new ArrayList<>(percentiles.length);
+        for (double percentile : percentiles) {
+            percentileScores.add(new TeamPercentileScore(team, percentile, getPercentile(percentile)));
+        }
+        return new TeamScoreStatistics(team, getAverage(), getMin(), getMax(), percentileScores);
+    }
+}
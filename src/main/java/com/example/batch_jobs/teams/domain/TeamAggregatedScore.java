@@ -14,14 +14,18 @@ public abstract class TeamAggregatedScore {
         this.score = score;
     }
 
-    protected enum Type {
-        MIN, AVG, MAX
+    public enum Type {
+        MIN, AVG, MAX, PERCENTILE
     }
 
     public String getTeam() {
         return team;
     }
 
+    public Type getType() {
+        return type;
+    }
+
     public BigDecimal getScore() {
         return score;
     }
@@ -0,0 +1,9 @@
+package com.example.batch_jobs.teams.domain;
+
+import java.math.BigDecimal;
+
+public class TeamMaxScore extends TeamAggregatedScore {
+    public TeamMaxScore(String team, BigDecimal score) {
+        super(team, Type.MAX, score);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.batch_jobs.teams.domain;
+
+import java.math.BigDecimal;
+
+public class TeamMinScore extends TeamAggregatedScore {
+    public TeamMinScore(String team, BigDecimal score) {
+        super(team, Type.MIN, score);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.batch_jobs.teams.domain;
+
+import java.math.BigDecimal;
+
+public class TeamPercentileScore extends TeamAggregatedScore {
+
+    private final double percentile;
+
+    public TeamPercentileScore(String team, double percentile, BigDecimal score) {
+        super(team, Type.PERCENTILE, score);
+        this.percentile = percentile;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+}
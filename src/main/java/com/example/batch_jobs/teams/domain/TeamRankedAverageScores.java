@@ -0,0 +1,19 @@
+package com.example.batch_jobs.teams.domain;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Averages of one team for several score ranks, in the order of the requested ranks. An average is {@code null}
+ * when a player of the team has no score at that rank.
+ */
+public record TeamRankedAverageScores(
+        String team,
+        List<BigDecimal> scores
+) {
+
+    public TeamAverageScore forRank(int index) {
+        final BigDecimal score = scores.get(index);
+        return score == null ? null : new TeamAverageScore(team, score);
+    }
+}
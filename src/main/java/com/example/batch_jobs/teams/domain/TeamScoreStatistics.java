@@ -0,0 +1,45 @@
+package com.example.batch_jobs.teams.domain;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Average of a team together with the other aggregates computed in the same pass. Being a {@link TeamAverageScore},
+ * it flows unchanged through the writers of the averages.
+ */
+public class TeamScoreStatistics extends TeamAverageScore {
+
+    private final TeamMinScore min;
+    private final TeamMaxScore max;
+    private final List<TeamPercentileScore> percentiles;
+
+    public TeamScoreStatistics(String team, BigDecimal average, BigDecimal min, BigDecimal max,
+                               List<TeamPercentileScore> percentiles) {
+        super(team, average);
+        this.min = new TeamMinScore(team, min);
+        this.max = new TeamMaxScore(team, max);
+        this.percentiles = List.copyOf(percentiles);
+    }
+
+    public TeamMinScore getMin() {
+        return min;
+    }
+
+    public TeamMaxScore getMax() {
+        return max;
+    }
+
+    public List<TeamPercentileScore> getPercentiles() {
+        return percentiles;
+    }
+
+    public List<TeamAggregatedScore> getScores() {
+        final List<TeamAggregatedScore> scores = new ArrayList<>(3 + percentiles.size());
+        scores.add(min);
+        scores.add(this);
+        scores.add(max);
+        scores.addAll(percentiles);
+        return scores;
+    }
+}
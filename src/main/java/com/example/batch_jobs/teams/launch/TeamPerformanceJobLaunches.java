@@ -0,0 +1,125 @@
+package com.example.batch_jobs.teams.launch;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces launches of the team performance job. Launches are keyed by their job parameters, without the
+ * correlation id, and a fingerprint of the input files (name, size and last modification). A launch joins the
+ * running execution of its key, or is served the completed one while the inputs are unchanged. Each execution
+ * writes its reports to its own directory, so one execution is kept per set of job parameters.
+ * The first launch of a key registers a future that concurrent launches of the same key wait on; the job itself
+ * is launched outside any shared lock. Executions that can no longer be served are evicted on every launch.
+ */
+@Component
+@Profile("performance")
+public class TeamPerformanceJobLaunches {
+
+    public static final String CORRELATION_ID_PARAMETER = "correlationId";
+
+    private final Map<String, Launch> launches = new ConcurrentHashMap<>();
+    private final ResourcePatternResolver resolver;
+    private final String inputPattern;
+
+    public TeamPerformanceJobLaunches(ResourcePatternResolver resolver,
+                                      @Value("${teams.input:classpath:teams/scores_*.txt}") String inputPattern) {
+        this.resolver = resolver;
+        this.inputPattern = inputPattern;
+    }
+
+    public JobExecution launch(JobParameters jobParameters, Launcher launcher) throws JobExecutionException {
+        final String key = key(jobParameters);
+        final String fingerprint = fingerprint();
+        launches.values().removeIf(launch -> !launch.isReusable(fingerprint));
+
+        final Launch launch = new Launch(fingerprint, new CompletableFuture<>());
+        final Launch current = launches.compute(key, (k, existing) ->
+                existing != null && existing.isReusable(fingerprint) ? existing : launch);
+        if (current != launch) {
+            return await(current.execution());
+        }
+        try {
+            final JobExecution jobExecution = launcher.launch(jobParameters);
+            launch.execution().complete(jobExecution);
+            return jobExecution;
+        } catch (Throwable e) {
+            launches.remove(key, launch);
+            launch.execution().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static JobExecution await(CompletableFuture<JobExecution> execution) throws JobExecutionException {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JobExecutionException cause) {
+                throw cause;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static String key(JobParameters jobParameters) {
+        return jobParameters.getParameters().entrySet().stream()
+                .filter(parameter -> !CORRELATION_ID_PARAMETER.equals(parameter.getKey()))
+                .sorted(Map.Entry.comparingByKey())
+                .map(parameter -> parameter.getKey() + "=" + parameter.getValue().getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private String fingerprint() {
+        try {
+            return Arrays.stream(resolver.getResources(inputPattern))
+                    .sorted(Comparator.comparing(Resource::getDescription))
+                    .map(TeamPerformanceJobLaunches::fingerprint)
+                    .collect(Collectors.joining(";"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to resolve " + inputPattern, e);
+        }
+    }
+
+    private static String fingerprint(Resource resource) {
+        try {
+            return resource.getDescription() + ":" + resource.contentLength() + ":" + resource.lastModified();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + resource, e);
+        }
+    }
+
+    private record Launch(String fingerprint, CompletableFuture<JobExecution> execution) {
+
+        /**
+         * Whether the launch is still in progress, or its execution is running or completed on the current inputs.
+         */
+        private boolean isReusable(String currentFingerprint) {
+            if (!fingerprint.equals(currentFingerprint) || execution.isCompletedExceptionally()) {
+                return false;
+            }
+            final JobExecution jobExecution = execution.getNow(null);
+            return jobExecution == null || jobExecution.isRunning() || jobExecution.getStatus() == BatchStatus.COMPLETED;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Launcher {
+        JobExecution launch(JobParameters jobParameters) throws JobExecutionException;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.batch_jobs.teams.manifest;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.lang.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes a tab-separated manifest of the regular files of a directory: name, size, last modification (ISO-8601),
+ * line count and CRC-32C. Each file is read once through a {@link FileChannel} to count its lines and compute the
+ * checksum. The manifest is written next to a temp file and then atomically moved into place, so it never lists
+ * itself and the step can be run again.
+ */
+public class OutputManifestTasklet implements Tasklet {
+
+    private static final String HEADER = "file\tsize\tmodified\tlines\tcrc32c";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final String manifestName;
+
+    public OutputManifestTasklet(Path directory, String manifestName) {
+        this.directory = directory;
+        this.manifestName = manifestName;
+    }
+
+    @Override
+    public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws IOException {
+        Files.createDirectories(directory);
+        final List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith(manifestName))
+                    .sorted()
+                    .toList();
+        }
+        final Path manifest = directory.resolve(manifestName);
+        final Path temp = directory.resolve(manifestName + ".tmp");
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Path file : files) {
+                writer.write(entry(file, buffer));
+                writer.newLine();
+                contribution.incrementWriteCount(1);
+            }
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return RepeatStatus.FINISHED;
+    }
+
+    private static String entry(Path file, ByteBuffer buffer) throws IOException {
+        final CRC32C checksum = new CRC32C();
+        long size = 0L;
+        long lines = 0L;
+        byte last = '\n';
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                final int limit = buffer.limit();
+                for (int i = 0; i < limit; i++) {
+                    if (buffer.get(i) == '\n') {
+                        lines++;
+                    }
+                }
+                if (limit > 0) {
+                    last = buffer.get(limit - 1);
+                    size += limit;
+                }
+                checksum.update(buffer);
+                buffer.clear();
+            }
+        }
+        if (last != '\n') {
+            lines++;
+        }
+        return String.join("\t",
+                file.getFileName().toString(),
+                String.valueOf(size),
+                Files.getLastModifiedTime(file).toInstant().toString(),
+                String.valueOf(lines),
+                "%08x".formatted(checksum.getValue()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.batch_jobs.teams.partition;
+
+import com.example.batch_jobs.teams.domain.ScoreRecord;
+import com.example.batch_jobs.teams.processor.TeamAggregatedScoresItemProcessor;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+
+/**
+ * Merges the max and min {@link ScoreRecord} of every partition into the manager step, in partition order,
+ * so ties resolve as in a sequential read. Partitions are looked up in the job repository by name, so
+ * partitions completed before a restart are merged too.
+ */
+public class ScoreRecordAggregator implements StepExecutionAggregator {
+
+    private final StepExecutionAggregator delegate = new DefaultStepExecutionAggregator();
+    private final JobRepository jobRepository;
+    private final String partitionStepName;
+
+    public ScoreRecordAggregator(JobRepository jobRepository, String partitionStepName) {
+        this.jobRepository = jobRepository;
+        this.partitionStepName = partitionStepName;
+    }
+
+    @Override
+    public void aggregate(@NonNull StepExecution result, @NonNull Collection<StepExecution> executions) {
+        delegate.aggregate(result, executions);
+        final JobInstance jobInstance = result.getJobExecution().getJobInstance();
+        ScoreRecord max = null;
+        ScoreRecord min = null;
+        StepExecution partition;
+        int index = 0;
+        while ((partition = jobRepository.getLastStepExecution(jobInstance, partitionStepName + ":partition" + index++)) != null) {
+            final ExecutionContext context = partition.getExecutionContext();
+            if (context.get(TeamAggregatedScoresItemProcessor.MAX_SCORE_RECORD_KEY) instanceof ScoreRecord partitionMax
+                    && (max == null || partitionMax.compareTo(max) > 0)) {
+                max = partitionMax;
+            }
+            if (context.get(TeamAggregatedScoresItemProcessor.MIN_SCORE_RECORD_KEY) instanceof ScoreRecord partitionMin
+                    && (min == null || partitionMin.compareTo(min) < 0)) {
+                min = partitionMin;
+            }
+        }
+        if (max != null) {
+            result.getExecutionContext().put(TeamAggregatedScoresItemProcessor.MAX_SCORE_RECORD_KEY, max);
+        }
+        if (min != null) {
+            result.getExecutionContext().put(TeamAggregatedScoresItemProcessor.MIN_SCORE_RECORD_KEY, min);
+        }
+    }
+}
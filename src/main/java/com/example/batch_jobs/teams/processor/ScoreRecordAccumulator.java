@@ -0,0 +1,59 @@
+package com.example.batch_jobs.teams.processor;
+
+import com.example.batch_jobs.teams.domain.ScoreRecord;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free max and min {@link ScoreRecord} of a step, safe to feed from several threads. Ties keep the record
+ * seen first. The records only reach the {@link ExecutionContext} through {@link #save}, i.e. at chunk boundaries.
+ */
+public class ScoreRecordAccumulator {
+
+    private final String maxKey;
+    private final String minKey;
+    private final AtomicReference<ScoreRecord> max = new AtomicReference<>();
+    private final AtomicReference<ScoreRecord> min = new AtomicReference<>();
+
+    public ScoreRecordAccumulator(String maxKey, String minKey) {
+        this.maxKey = maxKey;
+        this.minKey = minKey;
+    }
+
+    public void accept(String name, BigDecimal score) {
+        final ScoreRecord scoreRecord = offer(max, name, score, 1, null);
+        offer(min, name, score, -1, scoreRecord);
+    }
+
+    private static ScoreRecord offer(AtomicReference<ScoreRecord> best, String name, BigDecimal score, int direction,
+                                     ScoreRecord scoreRecord) {
+        ScoreRecord current;
+        while ((current = best.get()) == null || Integer.signum(score.compareTo(current.score())) == direction) {
+            if (scoreRecord == null) {
+                scoreRecord = new ScoreRecord(name, score);
+            }
+            if (best.compareAndSet(current, scoreRecord)) {
+                break;
+            }
+        }
+        return scoreRecord;
+    }
+
+    public void restore(ExecutionContext executionContext) {
+        max.set(executionContext.get(maxKey, ScoreRecord.class, null));
+        min.set(executionContext.get(minKey, ScoreRecord.class, null));
+    }
+
+    public void save(ExecutionContext executionContext) {
+        final ScoreRecord maxRecord = max.get();
+        final ScoreRecord minRecord = min.get();
+        if (maxRecord != null) {
+            executionContext.put(maxKey, maxRecord);
+        }
+        if (minRecord != null) {
+            executionContext.put(minKey, minRecord);
+        }
+    }
+}
@@ -1,52 +1,82 @@
 package com.example.batch_jobs.teams.processor;
 
+import com.example.batch_jobs.teams.domain.ScoreDistribution;
+import com.example.batch_jobs.teams.domain.TeamPlayer;
+import com.example.batch_jobs.teams.domain.TeamScoreStatistics;
 import com.example.batch_jobs.teams.domain.TeamScores;
-import com.example.batch_jobs.teams.domain.ScoreRecord;
 import com.example.batch_jobs.teams.domain.TeamAverageScore;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+/**
+ * Averages the scores of a team at the {@code scoreRank} job parameter. The max and min records are tracked in a
+ * {@link ScoreRecordAccumulator}, so the processor may be shared by the threads of a multi-threaded step, and are
+ * written to the step context on {@link #update}. With {@code teams.statistics.enabled} the same pass also collects
+ * a {@link ScoreDistribution} per team and emits {@link TeamScoreStatistics} instead of a plain average.
+ */
 @Component
 @StepScope
-public class TeamAggregatedScoresItemProcessor implements ItemProcessor<TeamScores, TeamAverageScore> {
+public class TeamAggregatedScoresItemProcessor implements ItemProcessor<TeamScores, TeamAverageScore>, ItemStream {
+
+    public static final String MAX_SCORE_RECORD_KEY = "maxScoreRecord";
+    public static final String MIN_SCORE_RECORD_KEY = "minScoreRecord";
 
     private final Integer scoreRank;
-    private ExecutionContext executionContext;
+    private final boolean statistics;
+    private final double[] percentiles;
+    private final int exactCapacity;
+    private final long bucketWidth;
+    private final ScoreRecordAccumulator scoreRecords = new ScoreRecordAccumulator(MAX_SCORE_RECORD_KEY, MIN_SCORE_RECORD_KEY);
 
-    public TeamAggregatedScoresItemProcessor(@Value("#{jobParameters['scoreRank']}") Integer scoreRank) {
+    public TeamAggregatedScoresItemProcessor(@Value("#{jobParameters['scoreRank']}") Integer scoreRank,
+                                             @Value("${teams.statistics.enabled:false}") boolean statistics,
+                                             @Value("${teams.statistics.percentiles:50,90,95}") double[] percentiles,
+                                             @Value("${teams.statistics.exact-capacity:256}") int exactCapacity,
+                                             @Value("${teams.statistics.bucket-width:1}") long bucketWidth) {
         this.scoreRank = scoreRank;
+        this.statistics = statistics;
+        this.percentiles = percentiles;
+        this.exactCapacity = exactCapacity;
+        this.bucketWidth = bucketWidth;
     }
 
     @Override
-    public TeamAverageScore process(TeamScores item) {
-        final ScoreRecord maxScoreRecord = executionContext.get("maxScoreRecord", ScoreRecord.class, new ScoreRecord("John Doe", BigDecimal.ZERO));
-        final ScoreRecord minScoreRecord = executionContext.get("minScoreRecord", ScoreRecord.class, new ScoreRecord("John Doe", BigDecimal.valueOf(Long.MAX_VALUE)));
-        final BigDecimal playersCount = BigDecimal.valueOf(item.players().size());
-        final BigDecimal averageScore = item.players().stream()
-                .map(teamPlayer -> {
-                    final BigDecimal score = teamPlayer.scores().get(scoreRank);
-                    final ScoreRecord scoreRecord = new ScoreRecord(teamPlayer.name(), score);
-                    if (scoreRecord.compareTo(maxScoreRecord) > 0) {
-                        executionContext.put("maxScoreRecord", scoreRecord);
-                    }
-                    if (scoreRecord.compareTo(minScoreRecord) < 0) {
-                        executionContext.put("minScoreRecord", scoreRecord);
-                    }
-                    return score;
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(playersCount, 2, RoundingMode.HALF_UP);
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        scoreRecords.restore(executionContext);
+    }
 
+    @Override
+    public TeamAverageScore process(TeamScores item) {
+        if (statistics) {
+            final ScoreDistribution distribution = new ScoreDistribution(exactCapacity, bucketWidth);
+            for (TeamPlayer teamPlayer : item.players()) {
+                final BigDecimal score = teamPlayer.scores().scoreAt(scoreRank);
+                scoreRecords.accept(teamPlayer.name(), score);
+                distribution.accept(score);
+            }
+            return distribution.toStatistics(item.team(), percentiles);
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (TeamPlayer teamPlayer : item.players()) {
+            final BigDecimal score = teamPlayer.scores().scoreAt(scoreRank);
+            scoreRecords.accept(teamPlayer.name(), score);
+            total = total.add(score);
+        }
+        final BigDecimal averageScore = total.divide(BigDecimal.valueOf(item.players().size()), 2, RoundingMode.HALF_UP);
         return new TeamAverageScore(item.team(), averageScore);
     }
 
-    public void setExecutionContext(ExecutionContext executionContext) {
-        this.executionContext = executionContext;
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        scoreRecords.save(executionContext);
     }
 }
@@ -0,0 +1,104 @@
+package com.example.batch_jobs.teams.processor;
+
+import com.example.batch_jobs.teams.domain.TeamPlayer;
+import com.example.batch_jobs.teams.domain.TeamRankedAverageScores;
+import com.example.batch_jobs.teams.domain.TeamScores;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the team average for every rank of the {@code scoreRanks} job parameter from a single read of the team,
+ * tracking the max and min records of each rank in a {@link ScoreRecordAccumulator} saved under
+ * {@link #maxScoreRecordKey(int)} and {@link #minScoreRecordKey(int)}. A team is only skipped when it cannot be
+ * ranked for any of the ranks.
+ */
+@Component
+@StepScope
+public class TeamRankedAverageScoresItemProcessor implements ItemProcessor<TeamScores, TeamRankedAverageScores>, ItemStream {
+
+    public static final String SCORE_RANKS_PARAMETER = "scoreRanks";
+
+    private final List<Integer> scoreRanks;
+    private final List<ScoreRecordAccumulator> scoreRecords;
+
+    public TeamRankedAverageScoresItemProcessor(@Value("#{jobParameters['scoreRanks']}") String scoreRanks) {
+        this.scoreRanks = parseRanks(scoreRanks);
+        this.scoreRecords = this.scoreRanks.stream()
+                .map(rank -> new ScoreRecordAccumulator(maxScoreRecordKey(rank), minScoreRecordKey(rank)))
+                .toList();
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        scoreRecords.forEach(accumulator -> accumulator.restore(executionContext));
+    }
+
+    @Override
+    public TeamRankedAverageScores process(TeamScores item) {
+        final BigDecimal[] averages = new BigDecimal[scoreRanks.size()];
+        boolean ranked = false;
+        for (int i = 0; i < averages.length; i++) {
+            averages[i] = average(item.players(), scoreRanks.get(i), scoreRecords.get(i));
+            ranked |= averages[i] != null;
+        }
+        if (!ranked) {
+            throw new IndexOutOfBoundsException("Team %s has no score at ranks %s".formatted(item.team(), scoreRanks));
+        }
+        return new TeamRankedAverageScores(item.team(), Arrays.asList(averages));
+    }
+
+    private static BigDecimal average(List<TeamPlayer> players, int scoreRank, ScoreRecordAccumulator accumulator) {
+        for (TeamPlayer teamPlayer : players) {
+            if (scoreRank >= teamPlayer.scores().size()) {
+                return null;
+            }
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (TeamPlayer teamPlayer : players) {
+            final BigDecimal score = teamPlayer.scores().scoreAt(scoreRank);
+            accumulator.accept(teamPlayer.name(), score);
+            total = total.add(score);
+        }
+        return total.divide(BigDecimal.valueOf(players.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        scoreRecords.forEach(accumulator -> accumulator.save(executionContext));
+    }
+
+    /**
+     * Ranks may be separated by commas or whitespace, the latter being needed on the command line where commas
+     * separate the value of a job parameter from its type.
+     */
+    public static List<Integer> parseRanks(String scoreRanks) {
+        final List<Integer> ranks = Arrays.stream(scoreRanks.trim().split("[,\\s]+"))
+                .map(Integer::valueOf)
+                .distinct()
+                .sorted()
+                .toList();
+        if (ranks.isEmpty() || ranks.getFirst() < 0) {
+            throw new IllegalArgumentException("Invalid score ranks: " + scoreRanks);
+        }
+        return ranks;
+    }
+
+    public static String maxScoreRecordKey(int scoreRank) {
+        return TeamAggregatedScoresItemProcessor.MAX_SCORE_RECORD_KEY + "." + scoreRank;
+    }
+
+    public static String minScoreRecordKey(int scoreRank) {
+        return TeamAggregatedScoresItemProcessor.MIN_SCORE_RECORD_KEY + "." + scoreRank;
+    }
+}
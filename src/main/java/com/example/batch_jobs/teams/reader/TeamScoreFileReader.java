@@ -1,7 +1,9 @@
 package com.example.batch_jobs.teams.reader;
 
+import com.example.batch_jobs.teams.domain.RankedScores;
 import com.example.batch_jobs.teams.domain.TeamScores;
 import com.example.batch_jobs.teams.domain.TeamPlayer;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
@@ -14,15 +16,18 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Stream;
+import java.util.Arrays;
 
 @Component
+@StepScope
 @Profile("performance")
 public class TeamScoreFileReader implements ResourceAwareItemReaderItemStream<TeamScores> {
 
+    private static final int SCALE = 2;
+    private static final int MAX_PLAIN_LENGTH = 15;
+
     private final ResourceAwareItemReaderItemStream<String> itemReader;
+    private long[] buffer = new long[16];
 
     public TeamScoreFileReader(@Qualifier("simpleStringLineReader") ResourceAwareItemReaderItemStream<String> itemReader) {
         this.itemReader = itemReader;
@@ -36,23 +41,108 @@ public class TeamScoreFileReader implements ResourceAwareItemReaderItemStream<Te
             currentLine = itemReader.read();
             final boolean isNotFinished = currentLine != null && !currentLine.isEmpty();
             if (isNotFinished) {
-                if (!currentLine.contains(":")) {
+                final int separator = currentLine.indexOf(':');
+                if (separator < 0) {
                     teamScores = new TeamScores(currentLine, new ArrayList<>());
                 } else {
-                    final String[] player = currentLine.split(":");
-                    final String name = player[0];
-                    final List<BigDecimal> scores = Stream.of(player[1].split(","))
-                            .map(Double::valueOf)
-                            .map(score -> BigDecimal.valueOf(score).setScale(2, RoundingMode.HALF_UP))
-                            .sorted(Comparator.reverseOrder())
-                            .toList();
-                    teamScores.players().add(new TeamPlayer(name, scores));
+                    final String name = currentLine.substring(0, separator);
+                    teamScores.players().add(new TeamPlayer(name, new RankedScores(parseScores(currentLine, separator + 1))));
                 }
             }
         } while (currentLine != null && !currentLine.isEmpty());
         return teamScores;
     }
 
+    /**
+     * Parses {@code d.dd,d.dd,...} into hundredths, rounding half up past two decimals, without splitting the line.
+     * Scores in any other form {@link Double#valueOf(String)} accepts, such as {@code 1e3}, are converted as before.
+     */
+    private long[] parseScores(String line, int from) {
+        if (isBlankTail(line, from)) {
+            return new long[0];
+        }
+        int count = 0;
+        int start = from;
+        do {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                end = line.length();
+            }
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, count << 1);
+            }
+            buffer[count++] = parseScore(line, start, end);
+            start = end + 1;
+        } while (start <= line.length() && !isBlankTail(line, start));
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private static long parseScore(String line, int start, int end) {
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start > MAX_PLAIN_LENGTH) {
+            return parseDoubleScore(line.substring(start, end));
+        }
+        final int tokenStart = start;
+        final boolean negative = start < end && line.charAt(start) == '-';
+        if (negative || start < end && line.charAt(start) == '+') {
+            start++;
+        }
+        long value = 0;
+        int fractionDigits = -1;
+        boolean hasDigits = false;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            final char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigits = true;
+                if (fractionDigits < SCALE) {
+                    value = value * 10 + (c - '0');
+                } else if (fractionDigits == SCALE) {
+                    roundUp = c >= '5';
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseDoubleScore(line.substring(tokenStart, end));
+            }
+        }
+        if (!hasDigits) {
+            return parseDoubleScore(line.substring(tokenStart, end));
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            value *= 10;
+        }
+        if (roundUp) {
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Conversion of the forms the plain parser leaves out, and of scores too long to be read exactly as a double.
+     */
+    private static long parseDoubleScore(String score) {
+        return BigDecimal.valueOf(Double.parseDouble(score)).setScale(SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    private static boolean isBlankTail(String line, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (line.charAt(i) != ',') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void setResource(@NonNull Resource resource) {
         this.itemReader.setResource(resource);
@@ -63,6 +153,11 @@ public class TeamScoreFileReader implements ResourceAwareItemReaderItemStream<Te
         this.itemReader.open(executionContext);
     }
 
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        this.itemReader.update(executionContext);
+    }
+
     @Override
     public void close() throws ItemStreamException {
         this.itemReader.close();
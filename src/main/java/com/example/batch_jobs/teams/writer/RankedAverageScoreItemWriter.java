@@ -0,0 +1,53 @@
+package com.example.batch_jobs.teams.writer;
+
+import com.example.batch_jobs.teams.domain.TeamAverageScore;
+import com.example.batch_jobs.teams.domain.TeamRankedAverageScores;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * Splits ranked averages into one delegate writer per score rank, each delegate receiving the averages of its rank
+ * in item order. Delegates are opened, updated and closed with this writer.
+ */
+public class RankedAverageScoreItemWriter implements ItemStreamWriter<TeamRankedAverageScores> {
+
+    private final List<? extends ItemStreamWriter<TeamAverageScore>> delegates;
+
+    public RankedAverageScoreItemWriter(List<? extends ItemStreamWriter<TeamAverageScore>> delegates) {
+        this.delegates = delegates;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        delegates.forEach(delegate -> delegate.open(executionContext));
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends TeamRankedAverageScores> chunk) throws Exception {
+        for (int index = 0; index < delegates.size(); index++) {
+            final Chunk<TeamAverageScore> averages = new Chunk<>();
+            for (TeamRankedAverageScores item : chunk) {
+                final TeamAverageScore average = item.forRank(index);
+                if (average != null) {
+                    averages.add(average);
+                }
+            }
+            delegates.get(index).write(averages);
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        delegates.forEach(delegate -> delegate.update(executionContext));
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegates.forEach(ItemStreamWriter::close);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.batch_jobs.transactions.balance;
+
+import java.math.BigDecimal;
+
+/**
+ * Running total kept as a {@code long} of hundredths while every amount has at most two decimals and the total
+ * fits, falling back to {@link BigDecimal} for the rest of the run otherwise.
+ */
+public class BalanceAccumulator {
+
+    private static final int SCALE = 2;
+
+    private long scaled;
+    private BigDecimal exact;
+
+    public BigDecimal add(BigDecimal amount) {
+        if (exact == null && amount.scale() <= SCALE) {
+            try {
+                scaled = Math.addExact(scaled, amount.movePointRight(SCALE).longValueExact());
+                return BigDecimal.valueOf(scaled, SCALE);
+            } catch (ArithmeticException e) {
+                exact = BigDecimal.valueOf(scaled, SCALE);
+            }
+        } else if (exact == null) {
+            exact = BigDecimal.valueOf(scaled, SCALE);
+        }
+        exact = exact.add(amount);
+        return exact;
+    }
+
+    public BigDecimal get() {
+        return exact != null ? exact : BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    public void reset(BigDecimal balance) {
+        scaled = 0L;
+        exact = null;
+        add(balance);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.batch_jobs.transactions.balance;
+
+import com.example.batch_jobs.transactions.domain.TransactionKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * High-water mark of the balance calculation: key and balance of the last transaction whose balance was written,
+ * kept as a single row in {@code bank.transaction_balance_watermark}. Transactions arrive with a {@code NULL}
+ * balance, so any such transaction at or before the mark arrived late and moves the start back to just before it.
+ * A partial index on the balance order of the transactions still without a balance keeps that check independent of
+ * the size of the history.
+ */
+public class BalanceWatermark {
+
+    private static final String TABLE = "bank.transaction_balance_watermark";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceWatermark(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Where the next calculation starts: after the returned key, from the returned balance.
+     */
+    public Start start() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s (datetime TIMESTAMP, merchant VARCHAR(255), amount NUMERIC, id INTEGER, balance NUMERIC)"
+                .formatted(TABLE));
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS transaction_balance_pending_idx ON bank.transaction %s WHERE balance IS NULL"
+                .formatted(TransactionKey.INDEX_COLUMNS));
+        final List<Start> marks = jdbcTemplate.query("SELECT datetime, merchant, amount, id, balance FROM " + TABLE,
+                (rs, rowNum) -> new Start(TransactionKey.of(rs), rs.getBigDecimal("balance")));
+        if (marks.isEmpty()) {
+            log.info("No balance watermark, calculating all transactions");
+            return Start.BEGINNING;
+        }
+        final Start mark = marks.getFirst();
+        final List<TransactionKey> late = jdbcTemplate.query("""
+                SELECT datetime, merchant, amount, id FROM bank.transaction
+                WHERE balance IS NULL AND %s <= (?, ?, ?, ?) ORDER BY %s LIMIT 1""".formatted(TransactionKey.COLUMNS, TransactionKey.ORDER),
+                (rs, rowNum) -> TransactionKey.of(rs),
+                mark.after().toParameters());
+        if (late.isEmpty()) {
+            log.info("Calculating transactions after {}", mark.after());
+            return mark;
+        }
+        final List<Start> previous = jdbcTemplate.query("""
+                SELECT datetime, merchant, amount, id, balance FROM bank.transaction
+                WHERE %s < (?, ?, ?, ?) ORDER BY %s LIMIT 1""".formatted(TransactionKey.COLUMNS, TransactionKey.REVERSE_ORDER),
+                (rs, rowNum) -> new Start(TransactionKey.of(rs), rs.getBigDecimal("balance")),
+                late.getFirst().toParameters());
+        log.info("Late transaction {} before watermark {}, recalculating from there", late.getFirst(), mark.after());
+        return previous.isEmpty() ? Start.BEGINNING : previous.getFirst();
+    }
+
+    /**
+     * Moves the mark to the transaction {@code id} with its balance as currently written, in the caller's transaction.
+     */
+    public void advanceTo(Integer id) {
+        jdbcTemplate.update("DELETE FROM " + TABLE);
+        jdbcTemplate.update("INSERT INTO %s (datetime, merchant, amount, id, balance) SELECT datetime, merchant, amount, id, balance FROM bank.transaction WHERE id = ?"
+                .formatted(TABLE), id);
+    }
+
+    public record Start(@Nullable TransactionKey after, BigDecimal balance) {
+
+        static final Start BEGINNING = new Start(null, BigDecimal.ZERO);
+    }
+}
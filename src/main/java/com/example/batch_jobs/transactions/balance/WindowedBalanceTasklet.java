@@ -0,0 +1,93 @@
+package com.example.batch_jobs.transactions.balance;
+
+import com.example.batch_jobs.transactions.configuration.SequentialBalanceProcessor;
+import com.example.batch_jobs.transactions.domain.TransactionKey;
+import com.example.batch_jobs.transactions.domain.TransactionKeyRange;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * Computes the running balance inside the database: each execution updates the next {@code sliceSize}
+ * transactions in balance order with a windowed {@code SUM(amount)} offset by the balance of the previous slice.
+ * The ends of all slices are found once per step execution in a single {@code ROW_NUMBER()} pass; each slice is
+ * then a key range, which the index described on {@link TransactionKey} serves without scanning the table.
+ * The last key and balance are kept in the step execution context, so every slice commits on its own and a failed
+ * execution resumes from the last completed slice. The final balance is left under
+ * {@link SequentialBalanceProcessor#CURRENT_BALANCE_KEY}, like the chunk-oriented steps.
+ * Holds the slice ends of one step execution, so it must be step scoped.
+ */
+public class WindowedBalanceTasklet implements Tasklet {
+
+    public static final String LAST_KEY = "windowedBalance.lastKey";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int sliceSize;
+
+    private Deque<TransactionKey> sliceEnds;
+
+    public WindowedBalanceTasklet(JdbcTemplate jdbcTemplate, int sliceSize) {
+        if (sliceSize < 1) {
+            throw new IllegalArgumentException("Invalid slice size " + sliceSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.sliceSize = sliceSize;
+    }
+
+    @Override
+    public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) {
+        final ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        final TransactionKey from = (TransactionKey) context.get(LAST_KEY);
+        final BigDecimal balance = Optional.ofNullable(context.get(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, BigDecimal.class))
+                .orElse(BigDecimal.ZERO);
+        context.put(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, balance);
+
+        if (sliceEnds == null) {
+            sliceEnds = sliceEnds(from);
+        }
+        final TransactionKey to = sliceEnds.poll();
+        if (to == null) {
+            context.remove(LAST_KEY);
+            return RepeatStatus.FINISHED;
+        }
+        final TransactionKeyRange slice = new TransactionKeyRange(from, to);
+        final int updated = jdbcTemplate.update("""
+                UPDATE bank.transaction t SET balance = s.balance
+                FROM (SELECT id, ? + SUM(amount) OVER (ORDER BY %s ROWS UNBOUNDED PRECEDING) AS balance
+                      FROM bank.transaction WHERE %s) s
+                WHERE t.id = s.id""".formatted(TransactionKey.ORDER, slice.condition()),
+                slice.parameters(new Object[]{balance}));
+        contribution.incrementWriteCount(updated);
+
+        context.put(LAST_KEY, to);
+        context.put(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, jdbcTemplate.queryForObject(
+                "SELECT balance FROM bank.transaction WHERE id = ?", BigDecimal.class, to.id()));
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    /**
+     * Keys of every {@code sliceSize}-th transaction after {@code from} and of the last one, in balance order.
+     */
+    private Deque<TransactionKey> sliceEnds(@Nullable TransactionKey from) {
+        final TransactionKeyRange remaining = new TransactionKeyRange(from, null);
+        return new ArrayDeque<>(jdbcTemplate.query("""
+                SELECT datetime, merchant, amount, id FROM (
+                    SELECT datetime, merchant, amount, id,
+                           ROW_NUMBER() OVER (ORDER BY %s) AS position, COUNT(*) OVER () AS remaining
+                    FROM bank.transaction WHERE %s
+                ) s WHERE MOD(position, ?) = 0 OR position = remaining ORDER BY position"""
+                        .formatted(TransactionKey.ORDER, remaining.condition()),
+                (rs, rowNum) -> TransactionKey.of(rs),
+                remaining.parameters(new Object[0], sliceSize)));
+    }
+}
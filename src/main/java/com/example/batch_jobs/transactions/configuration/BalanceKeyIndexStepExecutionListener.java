@@ -0,0 +1,33 @@
+package com.example.batch_jobs.transactions.configuration;
+
+import com.example.batch_jobs.transactions.domain.TransactionKey;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the expression index on the balance order described on {@link TransactionKey}, so the key range
+ * conditions of the windowed, partitioned and incremental steps are served by the index instead of a table scan.
+ */
+@Component
+public class BalanceKeyIndexStepExecutionListener implements StepExecutionListener {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceKeyIndexStepExecutionListener(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void beforeStep(@Nullable StepExecution stepExecution) {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS transaction_balance_key_idx ON bank.transaction " + TransactionKey.INDEX_COLUMNS);
+    }
+
+    @Override
+    public ExitStatus afterStep(@Nullable StepExecution stepExecution) {
+        return ExitStatus.COMPLETED;
+    }
+}
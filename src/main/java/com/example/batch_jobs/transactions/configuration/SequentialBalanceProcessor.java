@@ -1,34 +1,42 @@
 package com.example.batch_jobs.transactions.configuration;
 
+import com.example.batch_jobs.transactions.balance.BalanceAccumulator;
 import com.example.batch_jobs.transactions.domain.MerchantTransaction;
 import com.example.batch_jobs.transactions.domain.TotalBalance;
-import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.lang.NonNull;
-import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.Optional;
 
+/**
+ * Keeps the running balance in a field; it is restored from the step execution context on open and written back
+ * only on update, i.e. once per chunk, together with the reader position.
+ */
 @Component
-public class SequentialBalanceProcessor implements ItemProcessor<MerchantTransaction, TotalBalance> {
+public class SequentialBalanceProcessor implements ItemProcessor<MerchantTransaction, TotalBalance>, ItemStream {
 
-    private ExecutionContext context;
+    public static final String CURRENT_BALANCE_KEY = "currentBalance";
+
+    private final BalanceAccumulator balance = new BalanceAccumulator();
 
     @Override
     public TotalBalance process(@NonNull MerchantTransaction item) {
-        final BigDecimal updatedBalance = Optional.ofNullable(context.get("currentBalance", BigDecimal.class))
-                .orElse(BigDecimal.ZERO)
-                .add(item.amount());
-        context.put("currentBalance", updatedBalance);
-        return new TotalBalance(item.id(), updatedBalance);
+        return new TotalBalance(item.id(), balance.add(item.amount()));
     }
 
-    public void setStepExecution(@Nullable StepExecution stepExecution) {
-        this.context = Optional.ofNullable(stepExecution)
-                .map(StepExecution::getExecutionContext)
-                .orElse(null);
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        balance.reset(Optional.ofNullable(executionContext.get(CURRENT_BALANCE_KEY, BigDecimal.class))
+                .orElse(BigDecimal.ZERO));
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.put(CURRENT_BALANCE_KEY, balance.get());
     }
 }
@@ -1,15 +1,28 @@
 package com.example.batch_jobs.transactions.configuration;
 
+import com.example.batch_jobs.transactions.balance.BalanceWatermark;
+import com.example.batch_jobs.transactions.balance.WindowedBalanceTasklet;
 import com.example.batch_jobs.transactions.domain.MerchantTransaction;
 import com.example.batch_jobs.transactions.domain.TotalBalance;
 import com.example.batch_jobs.transactions.domain.TotalMerchantBalance;
 import com.example.batch_jobs.transactions.domain.TotalMonthlyBalance;
+import com.example.batch_jobs.transactions.domain.TransactionKey;
+import com.example.batch_jobs.transactions.domain.TransactionKeyRange;
+import com.example.batch_jobs.transactions.partition.BalanceAggregator;
+import com.example.batch_jobs.transactions.partition.BalanceRangePartitioner;
+import com.example.batch_jobs.transactions.writer.CopyBalanceItemWriter;
+import com.example.batch_jobs.transactions.writer.WatermarkBalanceItemWriter;
 import org.springframework.batch.core.*;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
@@ -19,15 +32,21 @@ import org.springframework.batch.item.json.JsonObjectMarshaller;
 import org.springframework.batch.item.json.builder.JsonFileItemWriterBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.WritableResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Map;
 
 @Configuration
@@ -35,13 +54,29 @@ import java.util.Map;
 public class TransactionBatchJobConfiguration {
 
     @Bean
-    public Job analyseAndReportTransactions(@Qualifier("calculateAndAnalyseBalance") Step calculateBalance,
+    public Job analyseAndReportTransactions(@Qualifier("calculateAndAnalyseBalance") Step calculateBalanceSequentially,
+                                            @Qualifier("calculateAndAnalyseBalanceWindowed") Step calculateBalanceWindowed,
+                                            @Qualifier("calculateAndAnalyseBalancePartitioned") Step calculateBalancePartitioned,
+                                            @Value("${transactions.windowed.enabled:false}") boolean windowed,
+                                            @Qualifier("calculateAndAnalyseBalanceIncrementally") Step calculateBalanceIncrementally,
+                                            @Value("${transactions.partitioned.enabled:false}") boolean partitioned,
+                                            @Value("${transactions.incremental.enabled:false}") boolean incremental,
                                             @Qualifier("aggregateBalanceByMerchant") Step aggregateByMerchant,
                                             @Qualifier("aggregateBalanceByMonth") Step aggregateByMonth,
                                             JobRepository jobRepository) {
+        if ((windowed ? 1 : 0) + (partitioned ? 1 : 0) + (incremental ? 1 : 0) > 1) {
+            throw new IllegalArgumentException("At most one of transactions.windowed.enabled, transactions.partitioned.enabled "
+                    + "and transactions.incremental.enabled may be set, got windowed=%s, partitioned=%s, incremental=%s"
+                    .formatted(windowed, partitioned, incremental));
+        }
+        final Step calculateBalance = windowed ? calculateBalanceWindowed
+                : partitioned ? calculateBalancePartitioned
+                : incremental ? calculateBalanceIncrementally
+                : calculateBalanceSequentially;
         return new JobBuilder("bank_transaction_analysis_and_report", jobRepository)
                 .flow(calculateBalance).on("POSITIVE").to(aggregateByMerchant)
                 .from(calculateBalance).on("NEGATIVE").to(aggregateByMonth)
+                .from(calculateBalance).on("FAILED").fail()
                 .from(calculateBalance).on("*").end()
                 .build()
                 .build();
@@ -51,49 +86,211 @@ public class TransactionBatchJobConfiguration {
     public Step calculateAndAnalyseBalance(@Qualifier("balanceColumnStepExecutionListener") StepExecutionListener addBalanceColumn,
                                            @Qualifier("transactionItemReader") ItemReader<MerchantTransaction> reader,
                                            @Qualifier("sequentialBalanceProcessor") SequentialBalanceProcessor processor,
-                                           @Qualifier("balanceItemWriter") ItemWriter<TotalBalance> writer,
+                                           @Qualifier("balanceItemWriter") ItemWriter<TotalBalance> updateWriter,
+                                           @Qualifier("copyBalanceItemWriter") ItemWriter<TotalBalance> copyWriter,
+                                           @Value("${transactions.copy.enabled:false}") boolean copy,
+                                           @Value("${transactions.chunk-size:500}") int chunkSize,
                                            JobRepository jobRepository,
                                            PlatformTransactionManager platformTransactionManager) {
         return new StepBuilder("calculate_total_balance", jobRepository)
                 .listener(new StepExecutionListener() {
                     @Override
-                    public void beforeStep(@NonNull StepExecution stepExecution) {
-                        processor.setStepExecution(stepExecution);
+                    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+                        return balanceExitStatus(stepExecution);
                     }
+                })
+                .listener(addBalanceColumn)
+                .<MerchantTransaction, TotalBalance>chunk(chunkSize, platformTransactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(copy ? copyWriter : updateWriter)
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    @Bean
+    public Step calculateAndAnalyseBalanceWindowed(@Qualifier("balanceColumnStepExecutionListener") StepExecutionListener addBalanceColumn,
+                                                   @Qualifier("balanceKeyIndexStepExecutionListener") StepExecutionListener addBalanceKeyIndex,
+                                                   @Qualifier("windowedBalanceTasklet") Tasklet tasklet,
+                                                   JobRepository jobRepository,
+                                                   PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("calculate_total_balance_windowed", jobRepository)
+                .listener(new StepExecutionListener() {
+                    @Override
+                    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+                        return balanceExitStatus(stepExecution);
+                    }
+                })
+                .listener(addBalanceColumn)
+                .listener(addBalanceKeyIndex)
+                .tasklet(tasklet, platformTransactionManager)
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public WindowedBalanceTasklet windowedBalanceTasklet(JdbcTemplate jdbcTemplate,
+                                                         @Value("${transactions.windowed.slice-size:50000}") int sliceSize) {
+        return new WindowedBalanceTasklet(jdbcTemplate, sliceSize);
+    }
 
+    @Bean
+    public Step calculateAndAnalyseBalancePartitioned(@Qualifier("balanceColumnStepExecutionListener") StepExecutionListener addBalanceColumn,
+                                                      @Qualifier("balanceKeyIndexStepExecutionListener") StepExecutionListener addBalanceKeyIndex,
+                                                      @Qualifier("calculateBalanceRange") Step worker,
+                                                      @Qualifier("balanceRangePartitioner") Partitioner partitioner,
+                                                      @Qualifier("balancePartitionExecutor") TaskExecutor taskExecutor,
+                                                      @Value("${transactions.partitioned.concurrency:4}") int concurrency,
+                                                      JobRepository jobRepository) {
+        return new StepBuilder("calculate_total_balance_partitioned", jobRepository)
+                .listener(new StepExecutionListener() {
                     @Override
                     public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
-                        processor.setStepExecution(null);
-                        final BigDecimal currentBalance = stepExecution.getExecutionContext().get("currentBalance", BigDecimal.class);
-                        final String status = currentBalance.compareTo(BigDecimal.ZERO) > 0 ? "POSITIVE" : "NEGATIVE";
-                        stepExecution.getExecutionContext().remove("currentBalance");
-                        return new ExitStatus(status);
+                        return balanceExitStatus(stepExecution);
                     }
                 })
                 .listener(addBalanceColumn)
-                .<MerchantTransaction, TotalBalance>chunk(20, platformTransactionManager)
+                .listener(addBalanceKeyIndex)
+                .partitioner("calculate_balance_range", partitioner)
+                .step(worker)
+                .taskExecutor(taskExecutor)
+                .gridSize(concurrency)
+                .aggregator(new BalanceAggregator(SequentialBalanceProcessor.CURRENT_BALANCE_KEY))
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    @Bean
+    public Step calculateBalanceRange(@Qualifier("rangeTransactionItemReader") ItemReader<MerchantTransaction> reader,
+                                      @Qualifier("rangeBalanceProcessor") SequentialBalanceProcessor processor,
+                                      @Qualifier("balanceItemWriter") ItemWriter<TotalBalance> updateWriter,
+                                      @Qualifier("copyBalanceItemWriter") ItemWriter<TotalBalance> copyWriter,
+                                      @Value("${transactions.copy.enabled:false}") boolean copy,
+                                      @Value("${transactions.chunk-size:500}") int chunkSize,
+                                      JobRepository jobRepository,
+                                      PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("calculate_balance_range", jobRepository)
+                .listener(new StepExecutionListener() {
+                    @Override
+                    public void beforeStep(@NonNull StepExecution stepExecution) {
+                        final ExecutionContext context = stepExecution.getExecutionContext();
+                        context.put(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, context.get(BalanceRangePartitioner.OFFSET_KEY));
+                    }
+                })
+                .<MerchantTransaction, TotalBalance>chunk(chunkSize, platformTransactionManager)
                 .reader(reader)
                 .processor(processor)
-                .writer(writer)
+                .writer(copy ? copyWriter : updateWriter)
                 .allowStartIfComplete(true)
                 .build();
     }
 
+    @Bean
+    public Partitioner balanceRangePartitioner(JdbcTemplate jdbcTemplate,
+                                               @Qualifier("balancePartitionExecutor") TaskExecutor taskExecutor) {
+        return new BalanceRangePartitioner(jdbcTemplate, taskExecutor);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor balancePartitionExecutor(@Value("${transactions.partitioned.concurrency:4}") int concurrency) {
+        return new ThreadPoolTaskExecutorBuilder()
+                .corePoolSize(concurrency)
+                .maxPoolSize(concurrency)
+                .threadNamePrefix("balance-partition-")
+                .build();
+    }
+
+    @Bean
+    public Step calculateAndAnalyseBalanceIncrementally(@Qualifier("balanceColumnStepExecutionListener") StepExecutionListener addBalanceColumn,
+                                                        @Qualifier("balanceKeyIndexStepExecutionListener") StepExecutionListener addBalanceKeyIndex,
+                                                        @Qualifier("rangeTransactionItemReader") ItemReader<MerchantTransaction> reader,
+                                                        @Qualifier("rangeBalanceProcessor") SequentialBalanceProcessor processor,
+                                                        @Qualifier("balanceItemWriter") ItemWriter<TotalBalance> updateWriter,
+                                                        @Qualifier("copyBalanceItemWriter") ItemWriter<TotalBalance> copyWriter,
+                                                        @Value("${transactions.copy.enabled:false}") boolean copy,
+                                                        @Value("${transactions.chunk-size:500}") int chunkSize,
+                                                        BalanceWatermark watermark,
+                                                        JobRepository jobRepository,
+                                                        PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("calculate_total_balance_incremental", jobRepository)
+                .listener(addBalanceColumn)
+                .listener(addBalanceKeyIndex)
+                .listener(new StepExecutionListener() {
+                    @Override
+                    public void beforeStep(@NonNull StepExecution stepExecution) {
+                        final BalanceWatermark.Start start = watermark.start();
+                        final ExecutionContext context = stepExecution.getExecutionContext();
+                        context.put(BalanceRangePartitioner.RANGE_KEY, new TransactionKeyRange(start.after(), null));
+                        context.put(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, start.balance());
+                    }
+
+                    @Override
+                    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+                        return balanceExitStatus(stepExecution);
+                    }
+                })
+                .<MerchantTransaction, TotalBalance>chunk(chunkSize, platformTransactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(new WatermarkBalanceItemWriter(copy ? copyWriter : updateWriter, watermark))
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    @Bean
+    public BalanceWatermark balanceWatermark(JdbcTemplate jdbcTemplate) {
+        return new BalanceWatermark(jdbcTemplate);
+    }
+
+    @Bean
+    @StepScope
+    public JdbcCursorItemReader<MerchantTransaction> rangeTransactionItemReader(@Qualifier("dataSource") DataSource dataSource,
+                                                                                @Value("#{stepExecutionContext['balanceRange']}") TransactionKeyRange range) {
+        return new JdbcCursorItemReaderBuilder<MerchantTransaction>()
+                .name("range_transaction_item_reader")
+                .dataSource(dataSource)
+                .sql("SELECT id, datetime, amount, merchant FROM bank.transaction WHERE %s ORDER BY %s"
+                        .formatted(range.condition(), TransactionKey.ORDER))
+                .queryArguments(range.parameters())
+                .rowMapper(TransactionBatchJobConfiguration::mapTransaction)
+                .saveState(false)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public SequentialBalanceProcessor rangeBalanceProcessor() {
+        return new SequentialBalanceProcessor();
+    }
+
+    private static ExitStatus balanceExitStatus(StepExecution stepExecution) {
+        if (stepExecution.getStatus().isUnsuccessful()) {
+            return stepExecution.getExitStatus();
+        }
+        final BigDecimal currentBalance = stepExecution.getExecutionContext().get(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, BigDecimal.class);
+        final String status = currentBalance.compareTo(BigDecimal.ZERO) > 0 ? "POSITIVE" : "NEGATIVE";
+        stepExecution.getExecutionContext().remove(SequentialBalanceProcessor.CURRENT_BALANCE_KEY);
+        return new ExitStatus(status);
+    }
+
     @Bean
     public ItemReader<MerchantTransaction> transactionItemReader(@Qualifier("dataSource") DataSource dataSource) {
         return new JdbcCursorItemReaderBuilder<MerchantTransaction>()
                 .name("transaction_item_reader")
                 .dataSource(dataSource)
-                .sql("SELECT id, datetime, amount, merchant FROM bank.transaction ORDER BY datetime, merchant, amount DESC")
-                .rowMapper((rs, rowNum) -> {
-                    final var id = rs.getObject("id", Integer.class);
-                    final var amount = rs.getBigDecimal("amount");
-                    return new MerchantTransaction(id, null, amount, null);
-                })
-                .saveState(false)
+                .sql("SELECT id, datetime, amount, merchant FROM bank.transaction ORDER BY datetime, merchant, amount DESC, id")
+                .rowMapper(TransactionBatchJobConfiguration::mapTransaction)
+                .saveState(true)
                 .build();
     }
 
+    private static MerchantTransaction mapTransaction(ResultSet rs, int rowNum) throws SQLException {
+        final var id = rs.getObject("id", Integer.class);
+        final var amount = rs.getBigDecimal("amount");
+        return new MerchantTransaction(id, null, amount, null);
+    }
+
     @Bean
     public ItemWriter<TotalBalance> balanceItemWriter(@Qualifier("dataSource") DataSource dataSource) {
         return new JdbcBatchItemWriterBuilder<TotalBalance>()
@@ -106,6 +303,12 @@ public class TransactionBatchJobConfiguration {
                 .build();
     }
 
+    @Bean
+    public ItemWriter<TotalBalance> copyBalanceItemWriter(@Qualifier("dataSource") DataSource dataSource,
+                                                          @Value("${transactions.copy.staging-table:transaction_balance_staging}") String stagingTable) {
+        return new CopyBalanceItemWriter(dataSource, stagingTable);
+    }
+
     @Bean
     public Step aggregateBalanceByMerchant(@Qualifier("pagedByMerchantTransactionReader") ItemReader<TotalMerchantBalance> reader,
                                         @Qualifier("merchantTotalBalanceWriter") ItemWriter<TotalMerchantBalance> writer,
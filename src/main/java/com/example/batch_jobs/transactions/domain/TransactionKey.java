@@ -0,0 +1,38 @@
+package com.example.batch_jobs.transactions.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Position of a transaction in the balance order: {@code datetime, merchant, amount DESC, id}. Order and range
+ * conditions are expressed on {@link #COLUMNS}, negating the amount, so that a single expression index on
+ * {@link #INDEX_COLUMNS} serves both. The steps relying on it create it with
+ * {@code BalanceKeyIndexStepExecutionListener}.
+ */
+public record TransactionKey(
+        Timestamp datetime,
+        String merchant,
+        BigDecimal amount,
+        Integer id
+) implements Serializable {
+
+    public static final String ORDER = "datetime, merchant, -amount, id";
+    public static final String REVERSE_ORDER = "datetime DESC, merchant DESC, -amount DESC, id DESC";
+    public static final String COLUMNS = "(datetime, merchant, -amount, id)";
+    public static final String INDEX_COLUMNS = "(datetime, merchant, (-amount), id)";
+
+    public static TransactionKey of(ResultSet rs) throws SQLException {
+        return new TransactionKey(
+                rs.getTimestamp("datetime"),
+                rs.getString("merchant"),
+                rs.getBigDecimal("amount"),
+                rs.getObject("id", Integer.class));
+    }
+
+    public Object[] toParameters() {
+        return new Object[]{datetime, merchant, amount.negate(), id};
+    }
+}
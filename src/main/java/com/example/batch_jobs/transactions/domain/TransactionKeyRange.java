@@ -0,0 +1,47 @@
+package com.example.batch_jobs.transactions.domain;
+
+import org.springframework.lang.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transactions after {@code from} up to and including {@code to} in balance order; a missing bound is open.
+ */
+public record TransactionKeyRange(
+        @Nullable TransactionKey from,
+        @Nullable TransactionKey to
+) implements Serializable {
+
+    public String condition() {
+        final List<String> conditions = new ArrayList<>(2);
+        if (from != null) {
+            conditions.add(TransactionKey.COLUMNS + " > (?, ?, ?, ?)");
+        }
+        if (to != null) {
+            conditions.add(TransactionKey.COLUMNS + " <= (?, ?, ?, ?)");
+        }
+        return conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions);
+    }
+
+    public Object[] parameters() {
+        return parameters(new Object[0]);
+    }
+
+    /**
+     * Parameters of {@link #condition()}, preceded by {@code leading} and followed by {@code trailing}.
+     */
+    public Object[] parameters(Object[] leading, Object... trailing) {
+        final List<Object> parameters = new ArrayList<>(Arrays.asList(leading));
+        if (from != null) {
+            parameters.addAll(Arrays.asList(from.toParameters()));
+        }
+        if (to != null) {
+            parameters.addAll(Arrays.asList(to.toParameters()));
+        }
+        parameters.addAll(Arrays.asList(trailing));
+        return parameters.toArray();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.batch_jobs.transactions.partition;
+
+import com.example.batch_jobs.transactions.domain.TransactionKeyRange;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Takes the closing balance of the last balance range, the one without an upper bound, as the balance of the
+ * manager step.
+ */
+public class BalanceAggregator implements StepExecutionAggregator {
+
+    private final StepExecutionAggregator delegate = new DefaultStepExecutionAggregator();
+    private final String balanceKey;
+
+    public BalanceAggregator(String balanceKey) {
+        this.balanceKey = balanceKey;
+    }
+
+    @Override
+    public void aggregate(@NonNull StepExecution result, @NonNull Collection<StepExecution> executions) {
+        delegate.aggregate(result, executions);
+        final BigDecimal balance = executions.stream()
+                .map(StepExecution::getExecutionContext)
+                .filter(context -> context.get(BalanceRangePartitioner.RANGE_KEY) instanceof TransactionKeyRange range
+                        && range.to() == null)
+                .map(context -> context.get(balanceKey, BigDecimal.class))
+                .findFirst()
+                .orElse(BigDecimal.ZERO);
+        result.getExecutionContext().put(balanceKey, balance);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.batch_jobs.transactions.partition;
+
+import com.example.batch_jobs.transactions.domain.TransactionKey;
+import com.example.batch_jobs.transactions.domain.TransactionKeyRange;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Splits {@code bank.transaction} into {@code gridSize} key ranges of equal row count in balance order, sums the
+ * amounts of every range concurrently and gives each partition its {@link TransactionKeyRange} and the exact
+ * balance preceding it, i.e. the sum of all earlier ranges.
+ */
+public class BalanceRangePartitioner implements Partitioner {
+
+    public static final String RANGE_KEY = "balanceRange";
+    public static final String OFFSET_KEY = "balanceOffset";
+    public static final String PARTITION_PREFIX = "partition";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor executor;
+
+    public BalanceRangePartitioner(JdbcTemplate jdbcTemplate, Executor executor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        final List<TransactionKeyRange> ranges = ranges(gridSize);
+        final List<CompletableFuture<BigDecimal>> totals = ranges.stream()
+                .map(range -> CompletableFuture.supplyAsync(() -> total(range), executor))
+                .toList();
+
+        final Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        BigDecimal offset = BigDecimal.ZERO;
+        for (int index = 0; index < ranges.size(); index++) {
+            final ExecutionContext context = new ExecutionContext();
+            context.put(RANGE_KEY, ranges.get(index));
+            context.put(OFFSET_KEY, offset);
+            partitions.put(PARTITION_PREFIX + index, context);
+            offset = offset.add(totals.get(index).join());
+        }
+        return partitions;
+    }
+
+    private List<TransactionKeyRange> ranges(int gridSize) {
+        final long count = jdbcTemplate.queryForObject("SELECT count(*) FROM bank.transaction", Long.class);
+        if (count == 0) {
+            return List.of();
+        }
+        final long rangeSize = Math.ceilDiv(count, Math.max(gridSize, 1));
+        final List<TransactionKey> boundaries = jdbcTemplate.query("""
+                SELECT datetime, merchant, amount, id FROM (
+                    SELECT datetime, merchant, amount, id, ROW_NUMBER() OVER (ORDER BY %s) AS position FROM bank.transaction
+                ) s WHERE MOD(position, ?) = 0 AND position < ? ORDER BY position""".formatted(TransactionKey.ORDER),
+                (rs, rowNum) -> TransactionKey.of(rs),
+                rangeSize, count);
+
+        final List<TransactionKeyRange> ranges = new ArrayList<>(boundaries.size() + 1);
+        TransactionKey from = null;
+        for (TransactionKey to : boundaries) {
+            ranges.add(new TransactionKeyRange(from, to));
+            from = to;
+        }
+        ranges.add(new TransactionKeyRange(from, null));
+        return ranges;
+    }
+
+    private BigDecimal total(TransactionKeyRange range) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM bank.transaction WHERE %s"
+                .formatted(range.condition()), BigDecimal.class, range.parameters());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.batch_jobs.transactions.writer;
+
+import com.example.batch_jobs.transactions.domain.TotalBalance;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * PostgreSQL only: streams each chunk into a staging table with {@code COPY} and applies it to
+ * {@code bank.transaction} with one {@code UPDATE ... FROM}. The staging table is a session temporary table with
+ * {@code ON COMMIT DELETE ROWS}, created once per database connection: concurrent writers never share it, and the
+ * commit of the chunk empties it without leaving dead tuples. Must therefore write inside a transaction.
+ */
+public class CopyBalanceItemWriter implements ItemWriter<TotalBalance> {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String stagingTable;
+    private final Set<PGConnection> sessions = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    public CopyBalanceItemWriter(DataSource dataSource, String stagingTable) {
+        if (!TABLE_NAME.matcher(stagingTable).matches()) {
+            throw new IllegalArgumentException("Invalid staging table name " + stagingTable);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.stagingTable = stagingTable;
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends TotalBalance> chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Staged balances are only kept until commit, write inside a transaction");
+        }
+        copy(chunk);
+        jdbcTemplate.update("UPDATE bank.transaction t SET balance = s.balance FROM %s s WHERE t.id = s.id"
+                .formatted(stagingTable));
+    }
+
+    private void copy(Chunk<? extends TotalBalance> chunk) throws SQLException {
+        final Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            final PGConnection session = connection.unwrap(PGConnection.class);
+            createStagingTable(connection, session);
+            final CopyIn copyIn = session.getCopyAPI()
+                    .copyIn("COPY %s (id, balance) FROM STDIN".formatted(stagingTable));
+            try {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int length = 0;
+                for (TotalBalance item : chunk) {
+                    final byte[] line = (item.id() + "\t" + (item.total() == null ? "\\N" : item.total().toPlainString()) + "\n")
+                            .getBytes(StandardCharsets.US_ASCII);
+                    if (length + line.length > buffer.length) {
+                        copyIn.writeToCopy(buffer, 0, length);
+                        length = 0;
+                    }
+                    System.arraycopy(line, 0, buffer, length, line.length);
+                    length += line.length;
+                }
+                copyIn.writeToCopy(buffer, 0, length);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Creates the temporary table on the first write of a session. The session is only remembered once the
+     * creating transaction commits, since a rollback also drops the table.
+     */
+    private void createStagingTable(Connection connection, PGConnection session) throws SQLException {
+        if (sessions.contains(session)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE IF NOT EXISTS %s (id INTEGER NOT NULL, balance DECIMAL(8,2)) ON COMMIT DELETE ROWS"
+                    .formatted(stagingTable));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sessions.add(session);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.batch_jobs.transactions.writer;
+
+import com.example.batch_jobs.transactions.balance.BalanceWatermark;
+import com.example.batch_jobs.transactions.domain.TotalBalance;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.lang.NonNull;
+
+/**
+ * Writes balances in transaction order through the delegate and then moves the {@link BalanceWatermark} to the last
+ * one, so the mark commits together with the chunk.
+ */
+public class WatermarkBalanceItemWriter implements ItemStreamWriter<TotalBalance> {
+
+    private final ItemWriter<TotalBalance> delegate;
+    private final BalanceWatermark watermark;
+
+    public WatermarkBalanceItemWriter(ItemWriter<TotalBalance> delegate, BalanceWatermark watermark) {
+        this.delegate = delegate;
+        this.watermark = watermark;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends TotalBalance> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        delegate.write(chunk);
+        watermark.advanceTo(chunk.getItems().getLast().id());
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.batch_jobs.sensors;
+
+import com.example.batch_jobs.sensors.configuration.TemperatureSensorJobConfiguration;
+import com.example.batch_jobs.sensors.domain.DailySensorAggregatedTemperatures;
+import com.example.batch_jobs.sensors.reader.DailyTemperatureXmlItemReader;
+import com.example.batch_jobs.sensors.writer.DailyTemperatureXmlItemWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.xml.builder.StaxEventItemReaderBuilder;
+import org.springframework.batch.item.xml.builder.StaxEventItemWriterBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.oxm.xstream.XStreamMarshaller;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DailyTemperatureXmlBenchmark {
+
+    private static final int ITEMS = 200_000;
+    private static final int CHUNK_SIZE = 100;
+    private static final int ROUNDS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareXStreamAndStreamingXml() throws Exception {
+        final XStreamMarshaller marshaller = new TemperatureSensorJobConfiguration().dailyTemperatureXmlMarshaller();
+        final List<DailySensorAggregatedTemperatures> items = items();
+        final FileSystemResource xstreamFile = new FileSystemResource(directory.resolve("xstream.xml"));
+        final FileSystemResource streamingFile = new FileSystemResource(directory.resolve("streaming.xml"));
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            report(round, "write", "xstream", write(new StaxEventItemWriterBuilder<DailySensorAggregatedTemperatures>()
+                    .name("xstream_writer")
+                    .resource(xstreamFile)
+                    .rootTagName("temperatures")
+                    .marshaller(marshaller)
+                    .overwriteOutput(true)
+                    .build(), items));
+            report(round, "write", "streaming", write(new DailyTemperatureXmlItemWriter("streaming_writer", streamingFile, "temperatures"), items));
+            report(round, "read", "xstream", read(new StaxEventItemReaderBuilder<DailySensorAggregatedTemperatures>()
+                    .name("xstream_reader")
+                    .resource(xstreamFile)
+                    .unmarshaller(marshaller)
+                    .addFragmentRootElements("measure")
+                    .build()));
+            report(round, "read", "streaming", read(new DailyTemperatureXmlItemReader("streaming_reader", streamingFile)));
+        }
+        assertArrayEquals(Files.readAllBytes(xstreamFile.getFile().toPath()), Files.readAllBytes(streamingFile.getFile().toPath()));
+    }
+
+    private static long write(ItemStreamWriter<DailySensorAggregatedTemperatures> writer,
+                              List<DailySensorAggregatedTemperatures> items) throws Exception {
+        final long start = System.nanoTime();
+        final ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            writer.write(new Chunk<>(items.subList(from, Math.min(from + CHUNK_SIZE, items.size()))));
+            writer.update(executionContext);
+        }
+        writer.close();
+        return System.nanoTime() - start;
+    }
+
+    private static long read(ItemStreamReader<DailySensorAggregatedTemperatures> reader) throws Exception {
+        final long start = System.nanoTime();
+        reader.open(new ExecutionContext());
+        int count = 0;
+        while (reader.read() != null) {
+            count++;
+        }
+        reader.close();
+        assertEquals(ITEMS, count);
+        return System.nanoTime() - start;
+    }
+
+    private static void report(int round, String operation, String implementation, long nanos) {
+        System.out.printf("round %d: %-5s %-9s %,12.0f items/sec%n", round, operation, implementation, ITEMS * 1e9 / nanos);
+    }
+
+    private static List<DailySensorAggregatedTemperatures> items() {
+        final Random random = new Random(42);
+        final LocalDate firstDay = LocalDate.of(2000, 1, 1);
+        final List<DailySensorAggregatedTemperatures> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new DailySensorAggregatedTemperatures(
+                    DateTimeFormatter.ISO_ORDINAL_DATE.format(firstDay.plusDays(i % 20_000)),
+                    BigDecimal.valueOf(random.nextInt(5_000), 2),
+                    BigDecimal.valueOf(random.nextInt(100)),
+                    BigDecimal.valueOf(5_000 + random.nextInt(5_000), 2)));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.batch_jobs.transactions;
+
+import com.example.batch_jobs.transactions.balance.BalanceWatermark;
+import com.example.batch_jobs.transactions.balance.WindowedBalanceTasklet;
+import com.example.batch_jobs.transactions.configuration.BalanceColumnStepExecutionListener;
+import com.example.batch_jobs.transactions.configuration.BalanceKeyIndexStepExecutionListener;
+import com.example.batch_jobs.transactions.configuration.SequentialBalanceProcessor;
+import com.example.batch_jobs.transactions.configuration.TransactionBatchJobConfiguration;
+import com.example.batch_jobs.transactions.domain.MerchantTransaction;
+import com.example.batch_jobs.transactions.domain.TotalBalance;
+import com.example.batch_jobs.transactions.domain.TransactionKey;
+import com.example.batch_jobs.transactions.domain.TransactionKeyRange;
+import com.example.batch_jobs.transactions.partition.BalanceAggregator;
+import com.example.batch_jobs.transactions.partition.BalanceRangePartitioner;
+import com.example.batch_jobs.transactions.writer.WatermarkBalanceItemWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the balance modes against {@code bank.transaction} of the database configured for the application. The chunked
+ * modes run at the former chunk size of 20 and at {@code transactions.chunk-size}, overridable with
+ * {@code -Dbenchmark.chunk-size}. The incremental mode runs once over all transactions and once over a late-arriving
+ * tail of {@code TAIL_SIZE} transactions.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledIfEnvironmentVariable(named = "PG_JDBC_URL", matches = ".+")
+class BalanceCalculationBenchmark {
+
+    private static final int BASELINE_CHUNK_SIZE = 20;
+    private static final int CHUNK_SIZE = Integer.getInteger("benchmark.chunk-size", 500);
+    private static final int SLICE_SIZE = 50_000;
+    private static final int PARTITIONS = 4;
+    private static final int TAIL_SIZE = 10_000;
+    private static final int ROUNDS = 3;
+    private static final String STAGING_TABLE = "transaction_balance_staging";
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            System.getenv("PG_JDBC_URL"), System.getenv("PG_USER"), System.getenv("PG_PASSWORD"));
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    @Test
+    void compareBalanceModes() throws Exception {
+        new BalanceColumnStepExecutionListener(jdbcTemplate).beforeStep(null);
+        new BalanceKeyIndexStepExecutionListener(jdbcTemplate).beforeStep(null);
+        final TransactionBatchJobConfiguration configuration = new TransactionBatchJobConfiguration();
+        final ItemWriter<TotalBalance> updateWriter = configuration.balanceItemWriter(dataSource);
+        final ItemWriter<TotalBalance> copyWriter = configuration.copyBalanceItemWriter(dataSource, STAGING_TABLE);
+        final long transactions = jdbcTemplate.queryForObject("SELECT count(*) FROM bank.transaction", Long.class);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            resetBalance();
+            final long baselineStart = System.nanoTime();
+            final BigDecimal sequentialBalance = sequential(updateWriter, BASELINE_CHUNK_SIZE);
+            report(round, "sequential/" + BASELINE_CHUNK_SIZE, transactions, System.nanoTime() - baselineStart);
+            final List<Map<String, Object>> sequentialChecksum = checksum();
+
+            for (int chunkSize : new int[]{BASELINE_CHUNK_SIZE, CHUNK_SIZE}) {
+                if (chunkSize != BASELINE_CHUNK_SIZE) {
+                    resetBalance();
+                    final long sequentialStart = System.nanoTime();
+                    final BigDecimal balance = sequential(updateWriter, chunkSize);
+                    report(round, "sequential/" + chunkSize, transactions, System.nanoTime() - sequentialStart);
+                    assertEquals(0, sequentialBalance.compareTo(balance));
+                    assertEquals(sequentialChecksum, checksum());
+                }
+
+                resetBalance();
+                final long copyStart = System.nanoTime();
+                final BigDecimal copyBalance = sequential(copyWriter, chunkSize);
+                report(round, "copy/" + chunkSize, transactions, System.nanoTime() - copyStart);
+                assertEquals(0, sequentialBalance.compareTo(copyBalance));
+                assertEquals(sequentialChecksum, checksum());
+            }
+
+            resetBalance();
+            final long windowedStart = System.nanoTime();
+            final BigDecimal windowedBalance = windowed();
+            report(round, "windowed", transactions, System.nanoTime() - windowedStart);
+
+            assertEquals(0, sequentialBalance.compareTo(windowedBalance));
+            assertEquals(sequentialChecksum, checksum());
+
+            resetBalance();
+            final long partitionedStart = System.nanoTime();
+            final BigDecimal partitionedBalance = partitioned(updateWriter, CHUNK_SIZE);
+            report(round, "partitioned/" + CHUNK_SIZE, transactions, System.nanoTime() - partitionedStart);
+            assertEquals(0, sequentialBalance.compareTo(partitionedBalance));
+            assertEquals(sequentialChecksum, checksum());
+
+            resetBalance();
+            final long incrementalStart = System.nanoTime();
+            final BigDecimal incrementalBalance = incremental(updateWriter, CHUNK_SIZE);
+            report(round, "incremental/" + CHUNK_SIZE, transactions, System.nanoTime() - incrementalStart);
+            assertEquals(0, sequentialBalance.compareTo(incrementalBalance));
+            assertEquals(sequentialChecksum, checksum());
+
+            final int tail = resetTailBalance();
+            final long tailStart = System.nanoTime();
+            final BigDecimal tailBalance = incremental(updateWriter, CHUNK_SIZE);
+            report(round, "incremental/tail", tail, System.nanoTime() - tailStart);
+            assertEquals(0, sequentialBalance.compareTo(tailBalance));
+            assertEquals(sequentialChecksum, checksum());
+        }
+    }
+
+    private BigDecimal sequential(ItemWriter<TotalBalance> writer, int chunkSize) throws Exception {
+        final ItemStreamReader<MerchantTransaction> reader = (ItemStreamReader<MerchantTransaction>)
+                new TransactionBatchJobConfiguration().transactionItemReader(dataSource);
+        return chunked(reader, writer, chunkSize, new ExecutionContext());
+    }
+
+    /**
+     * Runs the ranges of {@link BalanceRangePartitioner} concurrently, each from its offset as the range step does,
+     * and takes the balance from {@link BalanceAggregator}.
+     */
+    private BigDecimal partitioned(ItemWriter<TotalBalance> writer, int chunkSize) {
+        final ExecutorService executor = Executors.newFixedThreadPool(PARTITIONS);
+        try {
+            final JobExecution jobExecution = new JobExecution(1L);
+            final List<CompletableFuture<StepExecution>> partitions = new BalanceRangePartitioner(jdbcTemplate, executor)
+                    .partition(PARTITIONS).entrySet().stream()
+                    .map(partition -> CompletableFuture.supplyAsync(() -> {
+                        final StepExecution stepExecution = new StepExecution("calculate_balance_range:" + partition.getKey(), jobExecution);
+                        final ExecutionContext context = partition.getValue();
+                        context.put(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, context.get(BalanceRangePartitioner.OFFSET_KEY));
+                        stepExecution.setExecutionContext(context);
+                        try {
+                            chunked(rangeReader((TransactionKeyRange) context.get(BalanceRangePartitioner.RANGE_KEY)), writer, chunkSize, context);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                        return stepExecution;
+                    }, executor))
+                    .toList();
+            final StepExecution result = new StepExecution("calculate_total_balance_partitioned", jobExecution);
+            new BalanceAggregator(SequentialBalanceProcessor.CURRENT_BALANCE_KEY)
+                    .aggregate(result, partitions.stream().map(CompletableFuture::join).toList());
+            return result.getExecutionContext().get(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, BigDecimal.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Calculates from the {@link BalanceWatermark} as the incremental step does, moving the mark with every chunk.
+     */
+    private BigDecimal incremental(ItemWriter<TotalBalance> writer, int chunkSize) throws Exception {
+        final BalanceWatermark watermark = new BalanceWatermark(jdbcTemplate);
+        final BalanceWatermark.Start start = watermark.start();
+        final ExecutionContext context = new ExecutionContext();
+        context.put(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, start.balance());
+        return chunked(rangeReader(new TransactionKeyRange(start.after(), null)),
+                new WatermarkBalanceItemWriter(writer, watermark), chunkSize, context);
+    }
+
+    private ItemStreamReader<MerchantTransaction> rangeReader(TransactionKeyRange range) {
+        return new TransactionBatchJobConfiguration().rangeTransactionItemReader(dataSource, range);
+    }
+
+    private BigDecimal chunked(ItemStreamReader<MerchantTransaction> reader, ItemWriter<TotalBalance> writer,
+                               int chunkSize, ExecutionContext executionContext) throws Exception {
+        final SequentialBalanceProcessor processor = new SequentialBalanceProcessor();
+
+        reader.open(executionContext);
+        processor.open(executionContext);
+        if (writer instanceof ItemStream stream) {
+            stream.open(new ExecutionContext());
+        }
+        try {
+            boolean exhausted = false;
+            while (!exhausted) {
+                final Chunk<TotalBalance> chunk = new Chunk<>();
+                MerchantTransaction transaction;
+                while (chunk.size() < chunkSize && (transaction = reader.read()) != null) {
+                    chunk.add(processor.process(transaction));
+                }
+                exhausted = chunk.size() < chunkSize;
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        writer.write(chunk);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                reader.update(executionContext);
+                processor.update(executionContext);
+            }
+        } finally {
+            reader.close();
+        }
+        return executionContext.get(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, BigDecimal.class);
+    }
+
+    private BigDecimal windowed() {
+        final WindowedBalanceTasklet tasklet = new WindowedBalanceTasklet(jdbcTemplate, SLICE_SIZE);
+        final StepExecution stepExecution = stepExecution();
+        final StepContribution contribution = stepExecution.createStepContribution();
+        final ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        RepeatStatus status = RepeatStatus.CONTINUABLE;
+        while (status.isContinuable()) {
+            status = transactionTemplate.execute(transaction -> tasklet.execute(contribution, chunkContext));
+        }
+        return stepExecution.getExecutionContext().get(SequentialBalanceProcessor.CURRENT_BALANCE_KEY, BigDecimal.class);
+    }
+
+    private void resetBalance() {
+        jdbcTemplate.update("UPDATE bank.transaction SET balance = NULL");
+    }
+
+    /**
+     * Clears the balance of the last {@code TAIL_SIZE} transactions in balance order, as if they had arrived late.
+     */
+    private int resetTailBalance() {
+        return jdbcTemplate.update("UPDATE bank.transaction SET balance = NULL WHERE id IN (SELECT id FROM bank.transaction ORDER BY %s LIMIT ?)"
+                .formatted(TransactionKey.REVERSE_ORDER), TAIL_SIZE);
+    }
+
+    private List<Map<String, Object>> checksum() {
+        return jdbcTemplate.queryForList("SELECT count(balance) AS balances, sum(balance) AS total, sum(balance * id) AS weighted FROM bank.transaction");
+    }
+
+    private static StepExecution stepExecution() {
+        return new StepExecution("calculate_total_balance", new JobExecution(1L));
+    }
+
+    private static void report(int round, String mode, long transactions, long nanos) {
+        System.out.printf("round %d: %-16s %,12.0f transactions/sec%n", round, mode, transactions * 1e9 / nanos);
+    }
+}